@@ -0,0 +1,125 @@
+package hashpizza.game;
+
+import hashpizza.game.engine.util.GridUtils;
+import hashpizza.game.engine.util.SpatialGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmarks the collision grid used by level screens against checking every entity, with tile sized hitboxes spread
+ * over one screen in a grid the same size as a level screen's. The screen doesn't grow with the number of entities, so
+ * more entities means more of them per tile, as it would in the game.
+ * Usage: CollisionBenchmark [entity counts...]
+ */
+public class CollisionBenchmark {
+
+    /**
+     * The default entity counts to benchmark
+     */
+    private static final int[] DEFAULT_COUNTS = {300, 1000, 5000, 10000, 50000};
+
+    /**
+     * The number of moves and collision queries timed for each entity count
+     */
+    private static final int QUERIES = 20000;
+
+    public static void main(String[] args) {
+        int[] counts = DEFAULT_COUNTS;
+
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) counts[i] = Integer.parseInt(args[i]);
+        }
+
+        run(counts[0], false); //warm up the JIT
+
+        System.out.println(String.format("%8s %10s %16s %16s %12s %10s", "entities", "per tile", "brute ns/query", "grid ns/query", "grid ns/move", "speedup"));
+
+        for (int count : counts) {
+            run(count, true);
+        }
+    }
+
+    /**
+     * Runs the benchmark for the specified number of entities
+     *
+     * @param count the number of entities
+     * @param print whether to print the results
+     */
+    private static void run(int count, boolean print) {
+        Random random = new Random(count);
+
+        //every entity is on the one screen, as they are in a level
+        float width = GridUtils.SCREEN_WIDTH - GridUtils.TILE_WIDTH, height = GridUtils.SCREEN_HEIGHT - GridUtils.TILE_HEIGHT;
+
+        float[] left = new float[count], top = new float[count];
+        List<SpatialGrid.Node<Integer>> nodes = new ArrayList<>(count);
+        SpatialGrid<Integer> grid = SpatialGrid.forScreen();
+
+        for (int i = 0; i < count; i++) {
+            left[i] = random.nextFloat() * width;
+            top[i] = random.nextFloat() * height;
+            nodes.add(grid.insert(i, left[i], top[i], left[i] + GridUtils.TILE_WIDTH, top[i] + GridUtils.TILE_HEIGHT));
+        }
+
+        float[] queryX = new float[QUERIES], queryY = new float[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryX[i] = random.nextFloat() * width;
+            queryY[i] = random.nextFloat() * height;
+        }
+
+        //check every entity, as getCollisionAtPosition used to
+        long bruteHits = 0;
+        long start = System.nanoTime();
+
+        for (int q = 0; q < QUERIES; q++) {
+            float l = queryX[q], t = queryY[q], r = l + GridUtils.TILE_WIDTH, b = t + GridUtils.TILE_HEIGHT;
+
+            for (int i = 0; i < count; i++) {
+                if (left[i] < r && l < left[i] + GridUtils.TILE_WIDTH && top[i] < b && t < top[i] + GridUtils.TILE_HEIGHT)
+                    bruteHits++;
+            }
+        }
+
+        long bruteNanos = System.nanoTime() - start;
+
+        //only check the nearby entities using the grid
+        List<Integer> candidates = new ArrayList<>();
+        long gridHits = 0;
+        start = System.nanoTime();
+
+        for (int q = 0; q < QUERIES; q++) {
+            candidates.clear();
+            grid.query(queryX[q], queryY[q], queryX[q] + GridUtils.TILE_WIDTH, queryY[q] + GridUtils.TILE_HEIGHT, candidates);
+            gridHits += candidates.size();
+        }
+
+        long gridNanos = System.nanoTime() - start;
+
+        //nudge entities around as they would be moved by physics
+        start = System.nanoTime();
+
+        for (int q = 0; q < QUERIES; q++) {
+            int i = q % count;
+            left[i] += random.nextFloat() * 4 - 2;
+            top[i] += random.nextFloat() * 4 - 2;
+            grid.move(nodes.get(i), left[i], top[i], left[i] + GridUtils.TILE_WIDTH, top[i] + GridUtils.TILE_HEIGHT);
+        }
+
+        long moveNanos = System.nanoTime() - start;
+
+        if (bruteHits != gridHits) {
+            throw new IllegalStateException("Grid found " + gridHits + " collisions, expected " + bruteHits);
+        }
+
+        if (print) {
+            float perTile = (float) count / (GridUtils.X_TILES_PER_SCREEN * GridUtils.Y_TILES_PER_SCREEN);
+
+            System.out.println(String.format(Locale.ROOT, "%8d %10.1f %16.1f %16.1f %12.1f %9.1fx", count, perTile,
+                    (float) bruteNanos / QUERIES, (float) gridNanos / QUERIES, (float) moveNanos / QUERIES, (float) bruteNanos / gridNanos));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package hashpizza.game;
+
+import hashpizza.game.engine.GameWindow;
+import hashpizza.game.engine.platforming.HeadlessLevelRunner;
+import hashpizza.game.engine.platforming.LevelSchema;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bootstrap to run a level headlessly, without a window, and report how fast it ran.
+ * Usage: HeadlessMain &lt;level file&gt; [ticks] [key script file, or - for none] [profile csv file, or - for none]
+ * [physics threads, or 0 for none] [checksum file]. If the checksum file exists, every tick is checked against it,
+ * otherwise the checksum of every tick is saved to it
+ */
+public class HeadlessMain {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: HeadlessMain <level file> [ticks] [key script file, or - for none] [profile csv file, or - for none] [physics threads, or 0 for none] [checksum file]");
+            System.exit(1);
+        }
+
+        LevelSchema schema = LevelSchema.loadFromFile(args[0]);
+        if (schema == null) {
+            System.err.println("Could not load level " + args[0]);
+            System.exit(1);
+        }
+
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : GameWindow.DEFAULT_TICK_RATE * 60;
+
+        HeadlessLevelRunner runner = new HeadlessLevelRunner(schema, GameWindow.DEFAULT_TICK_RATE);
+
+        if (args.length > 2 && !args[2].equals("-")) {
+            runner.loadScript(args[2]);
+        } else {
+            runner.setAutoStart(true); //no script, so just get straight into the level
+        }
+
+        boolean profile = args.length > 3 && !args[3].equals("-");
+        if (profile) runner.getProfiler().setEnabled(true);
+
+        int physicsThreads = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        if (physicsThreads > 0) runner.getLevel().setPhysicsPool(new ForkJoinPool(physicsThreads));
+
+        boolean verify = args.length > 5 && Files.exists(Paths.get(args[5]));
+
+        if (verify) {
+            runner.loadExpectedChecksums(args[5]);
+        } else if (args.length > 5) {
+            runner.setRecordChecksums(true);
+        }
+
+        long startBytes = allocatedBytes();
+        long start = System.nanoTime();
+        int ticksRun = runner.run(ticks);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long bytes = allocatedBytes() - startBytes;
+
+        System.out.printf("Ran %d ticks of %s in %.3fs (%.0f ticks/s)%s%n", ticksRun, schema.meta.title, seconds,
+                ticksRun / seconds, runner.getLevel().isComplete() ? ", level completed" : "");
+
+        if (startBytes >= 0) System.out.printf("Allocated %d bytes (%.1f bytes/tick)%n", bytes, (double) bytes / Math.max(1, ticksRun));
+
+        if (profile) runner.getProfiler().dumpCsv(Paths.get(args[3]));
+
+        if (verify) {
+            runner.checkChecksumCount();
+            System.out.println("Every tick matched " + args[5]);
+        } else if (args.length > 5) {
+            runner.saveChecksums(args[5]);
+        }
+    }
+
+    /**
+     * @return the number of bytes allocated by this thread so far, or -1 if the JVM can't measure it
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return -1;
+    }
+}
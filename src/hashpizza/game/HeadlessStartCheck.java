@@ -0,0 +1,61 @@
+package hashpizza.game;
+
+import hashpizza.game.engine.GameWindow;
+import hashpizza.game.engine.platforming.HeadlessLevelRunner;
+import hashpizza.game.engine.platforming.LevelScreen;
+import hashpizza.game.engine.platforming.LevelSchema;
+
+/**
+ * Checks that a level can be run headlessly without JSFML's native libraries, by creating a headless runner, playing
+ * through the level's demo and ability selection and then playing the level for a while. Meant to be run on a machine
+ * without a display or OpenGL (e.g. a CI box), where loading the native libraries fails. Exits with status 1 if
+ * anything tried to load them, or the level didn't start.
+ * Usage: HeadlessStartCheck &lt;level file&gt; [ticks to play once the level has started]
+ */
+public class HeadlessStartCheck {
+
+    /**
+     * The most ticks to run whilst waiting for the level's demo to finish
+     */
+    private static final int MAX_START_TICKS = GameWindow.DEFAULT_TICK_RATE * 60;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: HeadlessStartCheck <level file> [ticks to play once the level has started]");
+            System.exit(1);
+        }
+
+        LevelSchema schema = LevelSchema.loadFromFile(args[0]);
+        if (schema == null) {
+            System.err.println("Could not load level " + args[0]);
+            System.exit(1);
+        }
+
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : GameWindow.DEFAULT_TICK_RATE * 10;
+
+        try {
+            HeadlessLevelRunner runner = new HeadlessLevelRunner(schema, GameWindow.DEFAULT_TICK_RATE);
+            runner.setAutoStart(true);
+
+            LevelScreen level = runner.getLevel();
+
+            while (!level.isActive() && runner.getCurrentTick() < MAX_START_TICKS) {
+                if (runner.run(1) == 0) break; //the level has been completed
+            }
+
+            if (!level.isActive()) {
+                System.err.println("The level didn't start within " + MAX_START_TICKS + " ticks");
+                System.exit(1);
+            }
+
+            runner.run(ticks);
+
+            System.out.printf("Ran %s headlessly for %d ticks without loading JSFML's native libraries%n",
+                    schema.meta.title, runner.getCurrentTick());
+        } catch (LinkageError ex) { //e.g. an UnsatisfiedLinkError from loading the native libraries
+            ex.printStackTrace();
+            System.err.println("Running headlessly needed JSFML's native libraries");
+            System.exit(1);
+        }
+    }
+}
@@ -9,6 +9,8 @@ import hashpizza.game.engine.util.GridUtils;
 public class Main {
 
     public static void main(String[] args) {
-        new GameWindow(GridUtils.SCREEN_WIDTH, GridUtils.SCREEN_HEIGHT);
+        boolean pipelined = args.length > 0 && args[0].equals("--pipelined"); //run the simulation on its own thread
+
+        new GameWindow(GridUtils.SCREEN_WIDTH, GridUtils.SCREEN_HEIGHT, GameWindow.DEFAULT_TICK_RATE, pipelined);
     }
 }
\ No newline at end of file
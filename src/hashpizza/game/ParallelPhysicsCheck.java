@@ -0,0 +1,85 @@
+package hashpizza.game;
+
+import hashpizza.game.engine.GameWindow;
+import hashpizza.game.engine.platforming.HeadlessLevelRunner;
+import hashpizza.game.engine.platforming.LevelSchema;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that working out entity moves on the physics pool plays a level out bit for bit the same as doing it on one
+ * thread, by running the level twice and comparing the checksum of every tick. The pool is used however few
+ * entities there are, so any level exercises it. Exits with status 1 if the runs differ.
+ * Usage: ParallelPhysicsCheck &lt;level file&gt; [ticks] [key script file, or - for none] [physics threads]
+ */
+public class ParallelPhysicsCheck {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: ParallelPhysicsCheck <level file> [ticks] [key script file, or - for none] [physics threads]");
+            System.exit(1);
+        }
+
+        LevelSchema schema = LevelSchema.loadFromFile(args[0]);
+        if (schema == null) {
+            System.err.println("Could not load level " + args[0]);
+            System.exit(1);
+        }
+
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : GameWindow.DEFAULT_TICK_RATE * 60;
+        String script = args.length > 2 && !args[2].equals("-") ? args[2] : null;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        List<Long> serial = run(schema, ticks, script, null);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Long> parallel;
+        try {
+            parallel = run(schema, ticks, script, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int tick = 0; tick < Math.min(serial.size(), parallel.size()); tick++) {
+            if (!serial.get(tick).equals(parallel.get(tick))) {
+                System.err.printf("Runs diverged on tick %d: %x without the pool, %x with %d threads%n", tick,
+                        serial.get(tick), parallel.get(tick), threads);
+                System.exit(1);
+            }
+        }
+
+        if (serial.size() != parallel.size()) {
+            System.err.printf("Runs diverged: %d ticks without the pool, %d with %d threads%n", serial.size(),
+                    parallel.size(), threads);
+            System.exit(1);
+        }
+
+        System.out.printf("%d ticks matched with and without a %d thread physics pool%n", serial.size(), threads);
+    }
+
+    /**
+     * Runs the level once, recording the checksum of every tick
+     *
+     * @param schema the level to run
+     * @param ticks  the maximum number of ticks to run
+     * @param script the key script file, or null to skip straight into the level
+     * @param pool   the physics pool, or null to not use one
+     * @return the checksum of every tick
+     */
+    private static List<Long> run(LevelSchema schema, int ticks, String script, ForkJoinPool pool) throws Exception {
+        HeadlessLevelRunner runner = new HeadlessLevelRunner(schema, GameWindow.DEFAULT_TICK_RATE);
+
+        if (script != null) {
+            runner.loadScript(script);
+        } else {
+            runner.setAutoStart(true);
+        }
+
+        runner.getLevel().setPhysicsPool(pool, 1);
+        runner.setRecordChecksums(true);
+        runner.run(ticks);
+
+        return runner.getChecksums();
+    }
+}
@@ -0,0 +1,87 @@
+package hashpizza.game;
+
+import hashpizza.game.engine.GameWindow;
+import hashpizza.game.engine.platforming.HeadlessLevelRunner;
+import hashpizza.game.engine.platforming.LevelScreen;
+import hashpizza.game.engine.platforming.LevelSchema;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Checks that stepping entity physics doesn't allocate. Runs a level until it is being played, warms up the physics
+ * of the entities it has at that point, then counts the bytes this thread allocates whilst stepping them again.
+ * Exits with status 1 if the physics allocated anything.
+ * Usage: PhysicsAllocationCheck &lt;level file&gt; [physics steps]
+ */
+public class PhysicsAllocationCheck {
+
+    /**
+     * The most ticks to run whilst waiting for the level's demo to finish
+     */
+    private static final int MAX_START_TICKS = GameWindow.DEFAULT_TICK_RATE * 60;
+
+    /**
+     * The number of physics steps to run before measuring, so the measurement isn't thrown off by class loading or
+     * lazily created state
+     */
+    private static final int WARM_UP_STEPS = 10000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: PhysicsAllocationCheck <level file> [physics steps]");
+            System.exit(1);
+        }
+
+        LevelSchema schema = LevelSchema.loadFromFile(args[0]);
+        if (schema == null) {
+            System.err.println("Could not load level " + args[0]);
+            System.exit(1);
+        }
+
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            System.err.println("This JVM can't count allocated bytes");
+            System.exit(1);
+        }
+
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        long threadId = Thread.currentThread().getId();
+
+        HeadlessLevelRunner runner = new HeadlessLevelRunner(schema, GameWindow.DEFAULT_TICK_RATE);
+        runner.setAutoStart(true);
+
+        LevelScreen level = runner.getLevel();
+
+        //play through the demo, so the entities are being simulated
+        while (!level.isActive() && runner.getCurrentTick() < MAX_START_TICKS) {
+            if (runner.run(1) == 0) break; //the level has been completed
+        }
+
+        if (!level.isActive()) {
+            System.err.println("The level didn't start within " + MAX_START_TICKS + " ticks");
+            System.exit(1);
+        }
+
+        float delta = 1f / runner.getTickRate();
+
+        for (int i = 0; i < WARM_UP_STEPS; i++) level.stepPhysics(delta);
+
+        long start = allocations.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < steps; i++) level.stepPhysics(delta);
+
+        long bytes = allocations.getThreadAllocatedBytes(threadId) - start;
+
+        System.out.printf("Stepped the physics of %d entities %d times, allocating %d bytes%n", level.getEntities().size(),
+                steps, bytes);
+
+        //a few bytes can be put down to reading the counter, but anything allocated per step shows up as at least one each
+        if (bytes >= steps) {
+            System.err.println("The physics step allocates");
+            System.exit(1);
+        }
+    }
+}
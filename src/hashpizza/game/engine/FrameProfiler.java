@@ -0,0 +1,283 @@
+package hashpizza.game.engine;
+
+import hashpizza.game.engine.util.Fonts;
+import org.jsfml.graphics.*;
+import org.jsfml.system.Vector2f;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Debug profiler which times how long each class of game object takes to update and draw every frame. Keeps the
+ * last few seconds of frames to work out rolling p50/p99 times, which can be shown in an overlay or dumped to CSV
+ */
+public class FrameProfiler implements Drawable {
+
+    /**
+     * The number of frames of history kept for each class
+     */
+    private static final int HISTORY_FRAMES = 240;
+
+    /**
+     * How often (in seconds) the overlay text is refreshed
+     */
+    private static final float OVERLAY_REFRESH_TIME = 0.5f;
+
+    /**
+     * The maximum number of classes to list in the overlay
+     */
+    private static final int OVERLAY_MAX_ROWS = 16;
+
+    /**
+     * Whether the profiler is recording
+     */
+    private volatile boolean enabled = false;
+
+    /**
+     * Timings for each class of object, in the order they were first seen
+     */
+    private final Map<Class<?>, ClassTimings> timings = new LinkedHashMap<>();
+
+    /**
+     * The number of frames recorded so far
+     */
+    private int frames = 0;
+
+    /**
+     * Time since the overlay was last refreshed
+     */
+    private float overlayTimer = OVERLAY_REFRESH_TIME;
+
+    /**
+     * The number of draw calls the last frame took
+     */
+    private int drawCalls = 0;
+
+    /**
+     * The number of objects the last frame skipped because they were outside of the view
+     */
+    private int culledObjects = 0;
+
+    /**
+     * The number of native sprite calls the last frame skipped because they wouldn't have changed anything
+     */
+    private int skippedCalls = 0;
+
+    /**
+     * Overlay background and text, created when the overlay is first drawn
+     */
+    private RectangleShape overlayBackground;
+    private org.jsfml.graphics.Text overlayText;
+
+    /**
+     * @return whether the profiler is recording
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the profiler should record timings. Timings are cleared when it is turned on
+     *
+     * @param enabled whether to record
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled) {
+            timings.clear();
+            frames = 0;
+            overlayTimer = OVERLAY_REFRESH_TIME;
+        }
+
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records the time an object spent updating and drawing in the current frame
+     *
+     * @param type        the object's class
+     * @param updateNanos the time spent updating, in nanoseconds
+     * @param drawNanos   the time spent drawing, in nanoseconds
+     */
+    public synchronized void record(Class<?> type, long updateNanos, long drawNanos) {
+        ClassTimings t = timings.computeIfAbsent(type, ClassTimings::new);
+
+        t.frameUpdate += updateNanos;
+        t.frameDraw += drawNanos;
+        t.frameCount++;
+    }
+
+    /**
+     * Ends the current frame, adding its totals to the history of each class
+     *
+     * @param delta the real time in seconds the frame took, used to refresh the overlay
+     */
+    public synchronized void endFrame(float delta) {
+        int slot = frames % HISTORY_FRAMES;
+
+        for (ClassTimings t : timings.values()) {
+            t.updateHistory[slot] = t.frameUpdate;
+            t.drawHistory[slot] = t.frameDraw;
+            t.countHistory[slot] = t.frameCount;
+
+            t.frameUpdate = 0;
+            t.frameDraw = 0;
+            t.frameCount = 0;
+        }
+
+        frames++;
+        overlayTimer += delta;
+    }
+
+    /**
+     * Works out the rolling percentiles for every class, slowest first
+     *
+     * @return the summary of each class
+     */
+    private List<ClassSummary> summarise() {
+        int count = Math.min(frames, HISTORY_FRAMES);
+        List<ClassSummary> summaries = new ArrayList<>();
+
+        if (count == 0) return summaries;
+
+        for (ClassTimings t : timings.values()) {
+            long[] update = Arrays.copyOf(t.updateHistory, count);
+            long[] draw = Arrays.copyOf(t.drawHistory, count);
+            int objects = Arrays.stream(t.countHistory, 0, count).max().orElse(0);
+
+            Arrays.sort(update);
+            Arrays.sort(draw);
+
+            summaries.add(new ClassSummary(t.name, objects, percentile(update, 0.5f), percentile(update, 0.99f),
+                    percentile(draw, 0.5f), percentile(draw, 0.99f)));
+        }
+
+        summaries.sort(Comparator.comparingLong((ClassSummary s) -> s.updateP99 + s.drawP99).reversed());
+
+        return summaries;
+    }
+
+    /**
+     * @param sorted the sorted values
+     * @param p      the percentile, between 0 and 1
+     * @return the value at the specified percentile
+     */
+    private static long percentile(long[] sorted, float p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+
+    /**
+     * Writes the current rolling percentiles for every class to a CSV file. Times are in microseconds
+     *
+     * @param path the file to write to
+     * @throws IOException if the file can't be written
+     */
+    public synchronized void dumpCsv(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("class,objects,update_p50_us,update_p99_us,draw_p50_us,draw_p99_us");
+
+        for (ClassSummary s : summarise()) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,%.1f,%.1f,%.1f,%.1f", s.name, s.objects, s.updateP50 / 1000f,
+                    s.updateP99 / 1000f, s.drawP50 / 1000f, s.drawP99 / 1000f));
+        }
+
+        Files.write(path, lines);
+    }
+
+    /**
+     * Records how many draw calls the last frame took, how many objects it culled and how many native sprite calls
+     * it skipped, to show on the overlay
+     *
+     * @param drawCalls     the number of draw calls
+     * @param culledObjects the number of objects skipped because they were outside of the view
+     * @param skippedCalls  the number of native sprite calls skipped because they wouldn't have changed anything
+     */
+    public synchronized void setDrawStats(int drawCalls, int culledObjects, int skippedCalls) {
+        this.drawCalls = drawCalls;
+        this.culledObjects = culledObjects;
+        this.skippedCalls = skippedCalls;
+    }
+
+    @Override
+    public synchronized void draw(RenderTarget renderTarget, RenderStates renderStates) {
+        if (overlayText == null) {
+            overlayBackground = new RectangleShape();
+            overlayBackground.setFillColor(new Color(0, 0, 0, 180));
+            overlayBackground.setPosition(10, 10);
+
+            overlayText = new org.jsfml.graphics.Text("", Fonts.PIXEL, 18);
+            overlayText.setPosition(20, 15);
+        }
+
+        if (overlayTimer >= OVERLAY_REFRESH_TIME) {
+            overlayTimer = 0;
+
+            StringBuilder sb = new StringBuilder(String.format("%-24s %5s %15s %15s%n", "class", "objs", "update p50/p99", "draw p50/p99"));
+
+            int rows = 0;
+            for (ClassSummary s : summarise()) {
+                if (rows++ == OVERLAY_MAX_ROWS) break;
+
+                sb.append(String.format(Locale.ROOT, "%-24s %5d %7.0f/%-7.0f %7.0f/%-7.0f%n", s.name, s.objects,
+                        s.updateP50 / 1000f, s.updateP99 / 1000f, s.drawP50 / 1000f, s.drawP99 / 1000f));
+            }
+
+            sb.append("draw calls: ").append(drawCalls).append('\n');
+            sb.append("culled objects: ").append(culledObjects).append('\n');
+            sb.append("skipped sprite calls: ").append(skippedCalls).append('\n');
+            overlayText.setString(sb.append("(times in microseconds)").toString());
+            overlayBackground.setSize(new Vector2f(overlayText.getLocalBounds().width + 20, overlayText.getLocalBounds().height + 20));
+        }
+
+        overlayBackground.draw(renderTarget, renderStates);
+        overlayText.draw(renderTarget, renderStates);
+    }
+
+    /**
+     * Timing history for one class of object
+     */
+    private static class ClassTimings {
+
+        /**
+         * The short name of the class, including the outer class for anonymous and inner classes
+         */
+        final String name;
+
+        /**
+         * Totals for the current frame
+         */
+        long frameUpdate, frameDraw;
+        int frameCount;
+
+        /**
+         * Ring buffers of the totals for previous frames
+         */
+        final long[] updateHistory = new long[HISTORY_FRAMES];
+        final long[] drawHistory = new long[HISTORY_FRAMES];
+        final int[] countHistory = new int[HISTORY_FRAMES];
+
+        ClassTimings(Class<?> type) {
+            this.name = type.getName().substring(type.getName().lastIndexOf('.') + 1);
+        }
+    }
+
+    /**
+     * Rolling percentiles for one class of object, in nanoseconds
+     */
+    private static class ClassSummary {
+
+        final String name;
+        final int objects;
+        final long updateP50, updateP99, drawP50, drawP99;
+
+        ClassSummary(String name, int objects, long updateP50, long updateP99, long drawP50, long drawP99) {
+            this.name = name;
+            this.objects = objects;
+            this.updateP50 = updateP50;
+            this.updateP99 = updateP99;
+            this.drawP50 = drawP50;
+            this.drawP99 = drawP99;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package hashpizza.game.engine;
+
+import org.jsfml.graphics.*;
+import org.jsfml.system.Vector2f;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A copy of everything needed to draw one frame of a screen, captured by the simulation thread so that the render
+ * thread can draw it while the simulation carries on with the next tick. Sprites are copied by value (texture,
+ * texture rect, transform and colour). Objects which can't be copied are recorded so that they can be drawn live
+ * whilst the simulation is paused
+ */
+public class FrameSnapshot {
+
+    /**
+     * The entries to draw, in draw order. Entries are re-used between captures to avoid allocating every tick
+     */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * The number of entries in use for the current capture
+     */
+    private int size = 0;
+
+    /**
+     * The background colour of the screen when this snapshot was captured
+     */
+    private Color backgroundColor = Color.BLACK;
+
+    /**
+     * The number of objects left out of this snapshot because they were outside of the view
+     */
+    private int culledObjects = 0;
+
+    /**
+     * Sprite re-used by the render thread to draw every sprite entry which can't be batched, created the first time
+     * one can't be
+     */
+    private Sprite drawSprite;
+
+    /**
+     * Clears this snapshot, ready for a new capture
+     *
+     * @param backgroundColor the background colour of the screen being captured
+     */
+    public void clear(Color backgroundColor) {
+        this.backgroundColor = backgroundColor;
+        size = 0;
+    }
+
+    /**
+     * Adds a copy of the specified sprite's current state to this snapshot
+     *
+     * @param sprite the sprite to copy
+     */
+    public void addSprite(GameSprite sprite) {
+        Entry entry = nextEntry();
+
+        entry.live = null;
+        entry.fixed = null;
+        entry.camera = false;
+        entry.texture = sprite.getTexture();
+        entry.textureRect = sprite.getTextureRect();
+        entry.transform = sprite.getTransform();
+        entry.color = sprite.getColor();
+    }
+
+    /**
+     * Adds an object which can't be copied. It will be drawn directly from its current state, with the simulation
+     * paused, when this snapshot is drawn
+     *
+     * @param drawable the object to draw live
+     */
+    public void addLive(Drawable drawable) {
+        Entry entry = nextEntry();
+
+        entry.live = drawable;
+        entry.camera = false;
+    }
+
+    /**
+     * Adds an object which is never changed once built (e.g. a baked vertex array), so it can be drawn by the render
+     * thread without copying it or pausing the simulation
+     *
+     * @param drawable the object to draw
+     * @param states   the render states to draw it with
+     */
+    public void addFixed(Drawable drawable, RenderStates states) {
+        Entry entry = nextEntry();
+
+        entry.live = null;
+        entry.fixed = drawable;
+        entry.camera = false;
+        entry.states = states;
+    }
+
+    /**
+     * Moves the camera that the following entries are drawn through
+     *
+     * @param offset how far the camera is moved from the target's normal view, or null to go back to the normal view
+     */
+    public void addCamera(Vector2f offset) {
+        Entry entry = nextEntry();
+
+        entry.live = null;
+        entry.fixed = null;
+        entry.texture = null;
+        entry.camera = true;
+        entry.cameraOffset = offset;
+    }
+
+    /**
+     * @return the next free entry, creating one if needed
+     */
+    private Entry nextEntry() {
+        if (size == entries.size()) entries.add(new Entry());
+
+        return entries.get(size++);
+    }
+
+    /**
+     * @param culledObjects the number of objects left out of this snapshot because they were outside of the view
+     */
+    public void setCulledObjects(int culledObjects) {
+        this.culledObjects = culledObjects;
+    }
+
+    /**
+     * @return the number of objects left out of this snapshot because they were outside of the view
+     */
+    public int getCulledObjects() {
+        return culledObjects;
+    }
+
+    /**
+     * @return the background colour of the screen when this snapshot was captured
+     */
+    public Color getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    /**
+     * Draws this snapshot to the render target
+     *
+     * @param target  the render target to draw to
+     * @param simLock the lock held by the simulation while it is updating, taken whilst drawing live objects
+     * @param batch   the batch to draw the sprites through
+     */
+    public void draw(RenderTarget target, Lock simLock, SpriteBatch batch) {
+        batch.resetCounts();
+
+        ConstView view = target.getView();
+
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries.get(i);
+
+            if (entry.camera) {
+                batch.flush(target); //the batched sprites were for the previous camera
+                target.setView(GameScreen.getCameraView(view, entry.cameraOffset));
+                continue;
+            }
+
+            if (entry.live != null || entry.fixed != null) {
+                batch.flush(target); //keep the draw order
+                batch.countDrawCall();
+            }
+
+            if (entry.live != null) {
+                //draw the run of live objects in one go whilst the simulation is paused
+                simLock.lock();
+                try {
+                    while (i < size && entries.get(i).live != null) {
+                        entries.get(i++).live.draw(target, RenderStates.DEFAULT);
+                    }
+                } finally {
+                    simLock.unlock();
+                }
+
+                i--;
+                continue;
+            }
+
+            if (entry.fixed != null) {
+                entry.fixed.draw(target, entry.states);
+                continue;
+            }
+
+            if (entry.texture == null) continue;
+
+            if (batch.add(target, entry.texture, entry.textureRect, entry.transform, entry.color)) continue;
+
+            batch.flush(target);
+            batch.countDrawCall();
+
+            if (drawSprite == null) drawSprite = new Sprite();
+
+            drawSprite.setTexture(entry.texture);
+            drawSprite.setTextureRect(entry.textureRect);
+            drawSprite.setColor(entry.color);
+            drawSprite.draw(target, new RenderStates(entry.transform));
+        }
+
+        batch.flush(target);
+        target.setView(view);
+    }
+
+    /**
+     * One object to draw within the snapshot
+     */
+    private static class Entry {
+
+        /**
+         * The object to draw live, or null if this is a copied sprite
+         */
+        Drawable live;
+
+        /**
+         * The unchanging object to draw and its render states, or null if this is a copied sprite
+         */
+        Drawable fixed;
+        RenderStates states;
+
+        /**
+         * Copied sprite state
+         */
+        ConstTexture texture;
+        IntRect textureRect;
+        Transform transform;
+        Color color;
+
+        /**
+         * Whether this entry moves the camera rather than drawing something, and how far it moves it
+         */
+        boolean camera;
+        Vector2f cameraOffset;
+    }
+}
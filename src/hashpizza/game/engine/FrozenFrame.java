@@ -0,0 +1,113 @@
+package hashpizza.game.engine;
+
+import hashpizza.game.engine.util.Textures;
+import org.jsfml.graphics.*;
+import org.jsfml.system.Vector2f;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A still image of some objects, e.g. the screen being slid away during a screen change. The objects are captured into
+ * a snapshot straight away, so they can be removed from the screen, and the snapshot is drawn into a texture the first
+ * time this is drawn. After that it costs one draw per frame no matter how many objects were captured
+ */
+public class FrozenFrame implements GameObject {
+
+    /**
+     * The captured objects, until they have been drawn into the texture
+     */
+    private FrameSnapshot snapshot;
+
+    /**
+     * The size of the area captured
+     */
+    private final int width, height;
+
+    /**
+     * The layer the image is drawn in
+     */
+    private final RenderLayer layer;
+
+    /**
+     * The texture the captured objects are drawn into
+     */
+    private RenderTexture texture;
+
+    /**
+     * Where the captured area's origin is drawn
+     */
+    private Vector2f position = Vector2f.ZERO;
+
+    /**
+     * Draws the texture onto the screen, created along with the texture
+     */
+    private Sprite sprite;
+
+    /**
+     * Captures some objects
+     *
+     * @param objects the objects to capture, which must only copy sprites or unchanging objects into a snapshot
+     * @param width   the width of the area to capture, from the origin
+     * @param height  the height of the area to capture, from the origin
+     * @param layer   the layer to draw the image in
+     */
+    public FrozenFrame(Iterable<? extends GameObject> objects, int width, int height, RenderLayer layer) {
+        this.width = width;
+        this.height = height;
+        this.layer = layer;
+
+        snapshot = new FrameSnapshot();
+
+        for (GameObject obj : objects) {
+            obj.snapshot(snapshot);
+        }
+    }
+
+    /**
+     * @param position where to draw the captured area's origin
+     */
+    public void setPosition(Vector2f position) {
+        this.position = position;
+        if (sprite != null) sprite.setPosition(position);
+    }
+
+    @Override
+    public void update(float delta) {
+
+    }
+
+    @Override
+    public void draw(RenderTarget renderTarget, RenderStates renderStates) {
+        if (snapshot != null) {
+            try {
+                texture = new RenderTexture();
+                texture.create(width, height);
+                texture.clear(Color.TRANSPARENT);
+
+                //nothing in the snapshot is drawn live, and the window's batch is part way through the current frame
+                snapshot.draw(texture, new ReentrantLock(), new SpriteBatch(Textures.getAtlas()));
+                texture.display();
+
+                sprite = new Sprite(texture.getTexture());
+                sprite.setPosition(position);
+            } catch (TextureCreationException ex) {
+                ex.printStackTrace();
+                texture = null;
+            }
+
+            snapshot = null;
+        }
+
+        if (texture != null) sprite.draw(renderTarget, renderStates);
+    }
+
+    @Override
+    public FloatRect getDrawBounds() {
+        return new FloatRect(position.x, position.y, width, height);
+    }
+
+    @Override
+    public RenderLayer getLayer() {
+        return layer;
+    }
+}
@@ -1,6 +1,7 @@
 package hashpizza.game.engine;
 
 import org.jsfml.graphics.Drawable;
+import org.jsfml.graphics.FloatRect;
 
 /**
  * Represents an object which can be added to a screen, and updated and drawn onto it when the screen updates
@@ -16,4 +17,33 @@ public interface GameObject extends Drawable {
      *              on slower computers, and vice versa
      */
     void update(float delta);
+
+    /**
+     * Returns the layer this object is drawn in. This is read once when the object is added to a screen
+     *
+     * @return the render layer for this object
+     */
+    default RenderLayer getLayer() {
+        return RenderLayer.WORLD;
+    }
+
+    /**
+     * Returns the area this object draws over, so that it can be skipped when it is outside of the view
+     *
+     * @return the area in the coordinates of this object's layer, or null if it isn't known, in which case the object
+     * is always drawn
+     */
+    default FloatRect getDrawBounds() {
+        return null;
+    }
+
+    /**
+     * Adds this object's current draw state to a snapshot, so it can be drawn by the render thread whilst the
+     * simulation carries on. By default the object is drawn live instead, with the simulation paused
+     *
+     * @param snapshot the snapshot being captured
+     */
+    default void snapshot(FrameSnapshot snapshot) {
+        snapshot.addLive(this);
+    }
 }
@@ -1,16 +1,17 @@
 package hashpizza.game.engine;
 
 import hashpizza.game.engine.platforming.Shield;
+import hashpizza.game.engine.util.ObjectRegistry;
+import hashpizza.game.engine.util.TimerWheel;
 import org.jsfml.audio.Music;
 import org.jsfml.audio.Sound;
-import org.jsfml.graphics.Color;
-import org.jsfml.graphics.RenderStates;
-import org.jsfml.graphics.RenderTarget;
+import org.jsfml.graphics.*;
+import org.jsfml.system.Vector2f;
+import org.jsfml.window.Keyboard;
 import org.jsfml.window.event.Event;
 import org.jsfml.window.event.KeyEvent;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Represents a screen which contains a collection of objects to render onto the window. One game screen can be
@@ -43,6 +44,17 @@ public class GameScreen {
      */
     private List<GameObject> objects;
 
+    /**
+     * The objects to draw in each render layer, in the order the layers are drawn. Each object is in the layer it
+     * returned when it was added
+     */
+    private List<List<GameObject>> layers;
+
+    /**
+     * The objects on this screen which handle key presses, so key events don't need to check every object
+     */
+    private final ObjectRegistry<KeyHandler> keyHandlers = new ObjectRegistry<>();
+
     /**
      * A collection of objects to be added on the next screen update - this is to prevent concurrent modification
      * exception
@@ -51,15 +63,42 @@ public class GameScreen {
 
     /**
      * A collection of objects to be removed on the next screen update - this is to prevent concurrent modification
-     * exception
+     * exception. Compared by identity so that checking whether an object is about to be removed is constant time
      */
-    private List<GameObject> objectsToRemove;
+    private Set<GameObject> objectsToRemove;
+
+    /**
+     * The objects to be removed, in the order they were asked to be removed. The identity set has no stable order,
+     * and the order objects are removed in decides where other objects end up in swap-remove collections
+     */
+    private List<GameObject> removalOrder;
 
     /**
      * Status flag as to whether objects have been modified (added/removed) since the last update
      */
     private boolean objectsModified = false;
 
+    /**
+     * How far (0 to 1) the renderer currently is between the previous simulation tick and the next one. Used by
+     * objects to interpolate where they are drawn when the simulation runs at a fixed tick rate
+     */
+    private float interpolationAlpha = 1f;
+
+    /**
+     * How far the camera that the world layers are drawn through is moved from the window's normal view
+     */
+    private Vector2f cameraOffset = Vector2f.ZERO;
+
+    /**
+     * The number of objects skipped in the last draw or snapshot because they were outside of the view
+     */
+    private int culledObjects = 0;
+
+    /**
+     * Timers which run in this screen's game time
+     */
+    private final TimerWheel timers = new TimerWheel();
+
     /**
      * Creates a game screen
      *
@@ -69,8 +108,14 @@ public class GameScreen {
         this.window = window;
 
         objects = new ArrayList<>();
+        layers = new ArrayList<>();
+
+        for (RenderLayer layer : RenderLayer.values()) {
+            layers.add(new ArrayList<>());
+        }
         objectsToAdd = new ArrayList<>();
-        objectsToRemove = new ArrayList<>();
+        objectsToRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+        removalOrder = new ArrayList<>();
     }
 
     /**
@@ -92,11 +137,11 @@ public class GameScreen {
     }
 
     /**
-     * Returns a list of all the objects to be removed on the next update
+     * Returns the set of all the objects to be removed on the next update
      *
-     * @return the object removal list
+     * @return the object removal set
      */
-    public List<GameObject> getObjectsToRemove() {
+    public Set<GameObject> getObjectsToRemove() {
         return objectsToRemove;
     }
 
@@ -116,7 +161,7 @@ public class GameScreen {
      * @param obj the object to remove
      */
     public void removeObject(GameObject obj) {
-        objectsToRemove.add(obj);
+        if (objectsToRemove.add(obj)) removalOrder.add(obj);
         objectsModified = true;
     }
 
@@ -131,10 +176,9 @@ public class GameScreen {
 
             if(o.getClass() == obj.getClass())
             {
-                objectsToRemove.add(o);
+                removeObject(o); //so it is removed in order, like any other removal
             }
         }
-        objectsModified = true;
     }
 
     /**
@@ -156,18 +200,26 @@ public class GameScreen {
         if (event instanceof KeyEvent) {
             KeyEvent ev = (KeyEvent) event;
 
-            //get all objects which are key handlers to respond to this event...
-            objects.forEach(o -> {
-                if (o instanceof KeyHandler) {
-                    KeyHandler kh = (KeyHandler) o;
+            handleKey(ev.key, event.type == Event.Type.KEY_PRESSED);
+        }
+    }
 
-                    if (event.type == Event.Type.KEY_PRESSED) {
-                        kh.onKeyPress(ev.key);
-                    } else {
-                        kh.onKeyRelease(ev.key);
-                    }
-                }
-            });
+    /**
+     * Passes a key press or release onto all of the key handlers on this screen
+     *
+     * @param key     the key
+     * @param pressed true if the key was pressed down, false if it was released
+     */
+    public void handleKey(Keyboard.Key key, boolean pressed) {
+        //get all objects which are key handlers to respond to this event...
+        for (int i = 0; i < keyHandlers.size(); i++) {
+            KeyHandler kh = keyHandlers.get(i);
+
+            if (pressed) {
+                kh.onKeyPress(key);
+            } else {
+                kh.onKeyRelease(key);
+            }
         }
     }
 
@@ -241,10 +293,292 @@ public class GameScreen {
      * @param delta the time in seconds since the last update
      */
     public void update(RenderTarget target, float delta) {
+        tick(delta);
+        draw(target, 1f);
+    }
+
+    /**
+     * Updates all of the objects on this screen by one simulation tick, without drawing them. Used when the window
+     * is running the simulation at a fixed tick rate
+     *
+     * @param delta the fixed tick length in seconds
+     */
+    public void tick(float delta) {
+        beginUpdate(delta);
+
+        FrameProfiler profiler = window.getProfiler();
+
+        if (profiler.isEnabled()) {
+            for (GameObject obj : getObjects()) {
+                long start = System.nanoTime();
+                obj.update(getObjectDelta(obj, delta));
+
+                profiler.record(obj.getClass(), System.nanoTime() - start, 0);
+            }
+
+            return;
+        }
+
         for (GameObject obj : getObjects()) {
-            obj.update(delta); //update and draw each object for each game loop
-            obj.draw(target, RenderStates.DEFAULT);
+            obj.update(getObjectDelta(obj, delta));
+        }
+    }
+
+    /**
+     * Draws all of the objects on this screen without updating them
+     *
+     * @param target the render target to draw to
+     * @param alpha  how far (0 to 1) we are between the last simulation tick and the next one
+     */
+    public void draw(RenderTarget target, float alpha) {
+        interpolationAlpha = alpha;
+
+        FrameProfiler profiler = window.getProfiler();
+        SpriteBatch batch = window.getSpriteBatch();
+
+        batch.resetCounts();
+
+        ConstView view = target.getView();
+        ConstView camera = getCameraView(view, cameraOffset);
+
+        FloatRect visible = getVisibleArea(view), visibleWorld = getVisibleArea(camera);
+
+        culledObjects = 0;
+
+        for (RenderLayer renderLayer : RenderLayer.values()) {
+            List<GameObject> layer = layers.get(renderLayer.ordinal());
+
+            if (camera != view) {
+                batch.flush(target);
+                target.setView(renderLayer.isWorld() ? camera : view);
+            }
+
+            for (GameObject obj : layer) {
+                if (isCulled(obj, renderLayer.isWorld() ? visibleWorld : visible)) continue;
+
+                if (profiler.isEnabled()) {
+                    long start = System.nanoTime();
+                    drawObject(obj, target, batch);
+
+                    profiler.record(obj.getClass(), 0, System.nanoTime() - start);
+                } else {
+                    drawObject(obj, target, batch);
+                }
+            }
         }
+
+        batch.flush(target);
+        target.setView(view);
+
+        interpolationAlpha = 1f;
+    }
+
+    /**
+     * Draws one object, through the sprite batch if it is a sprite
+     *
+     * @param obj    the object to draw
+     * @param target the render target to draw to
+     * @param batch  the batch to add sprites to
+     */
+    private void drawObject(GameObject obj, RenderTarget target, SpriteBatch batch) {
+        //only batch plain sprites, anything else may draw things which can't be batched
+        if (obj instanceof GameSprite) {
+            ((GameSprite) obj).draw(target, RenderStates.DEFAULT, batch);
+            return;
+        }
+
+        batch.flush(target);
+        batch.countDrawCall();
+
+        obj.draw(target, RenderStates.DEFAULT);
+    }
+
+    /**
+     * Captures the current draw state of all of the objects on this screen into a snapshot
+     *
+     * @param snapshot the snapshot to capture into
+     */
+    public void captureSnapshot(FrameSnapshot snapshot) {
+        snapshot.clear(backgroundColor);
+
+        boolean moved = cameraOffset.x != 0 || cameraOffset.y != 0;
+
+        //the window is always drawn through its default view, which shows the whole window
+        FloatRect visible = new FloatRect(0, 0, window.getWidth(), window.getHeight());
+        FloatRect visibleWorld = new FloatRect(cameraOffset.x, cameraOffset.y, window.getWidth(), window.getHeight());
+
+        culledObjects = 0;
+
+        for (RenderLayer renderLayer : RenderLayer.values()) {
+            if (moved) snapshot.addCamera(renderLayer.isWorld() ? cameraOffset : null);
+
+            for (GameObject obj : layers.get(renderLayer.ordinal())) {
+                if (isCulled(obj, renderLayer.isWorld() ? visibleWorld : visible)) continue;
+
+                obj.snapshot(snapshot);
+            }
+        }
+
+        snapshot.setCulledObjects(culledObjects);
+    }
+
+    /**
+     * Checks whether an object is outside of the visible area, counting it if it is
+     *
+     * @param obj     the object to check
+     * @param visible the visible area of the object's layer
+     * @return true if the object doesn't need to be drawn
+     */
+    private boolean isCulled(GameObject obj, FloatRect visible) {
+        FloatRect bounds = obj.getDrawBounds();
+
+        if (bounds == null || (bounds.left < visible.left + visible.width && visible.left < bounds.left + bounds.width
+                && bounds.top < visible.top + visible.height && visible.top < bounds.top + bounds.height)) {
+            return false;
+        }
+
+        culledObjects++;
+        return true;
+    }
+
+    /**
+     * @return the number of objects skipped in the last draw or snapshot because they were outside of the view
+     */
+    public int getCulledObjects() {
+        return culledObjects;
+    }
+
+    /**
+     * Gets the area of the world shown by a view
+     *
+     * @param view the view
+     * @return the area shown by the view, ignoring any rotation
+     */
+    private static FloatRect getVisibleArea(ConstView view) {
+        Vector2f center = view.getCenter(), size = view.getSize();
+
+        return new FloatRect(center.x - size.x * 0.5f, center.y - size.y * 0.5f, size.x, size.y);
+    }
+
+    /**
+     * Sets how far the camera that the world layers are drawn through is moved from the window's normal view, e.g. to
+     * pan across to another part of the world
+     *
+     * @param cameraOffset the camera offset, or zero to draw the world through the normal view
+     */
+    public void setCameraOffset(Vector2f cameraOffset) {
+        this.cameraOffset = cameraOffset;
+    }
+
+    /**
+     * @return how far the camera that the world layers are drawn through is moved from the window's normal view
+     */
+    public Vector2f getCameraOffset() {
+        return cameraOffset;
+    }
+
+    /**
+     * Gets the view to draw the world through for a camera offset
+     *
+     * @param view   the render target's normal view
+     * @param offset how far the camera is moved from the normal view, or null if it isn't moved
+     * @return a view showing the area moved by the offset, or the normal view if the offset is null or zero
+     */
+    static ConstView getCameraView(ConstView view, Vector2f offset) {
+        if (offset == null || (offset.x == 0 && offset.y == 0)) return view;
+
+        View camera = new View(Vector2f.add(view.getCenter(), offset), view.getSize());
+        camera.setRotation(view.getRotation());
+        camera.setViewport(view.getViewport());
+
+        return camera;
+    }
+
+    /**
+     * Called once at the start of every update, before any of the objects are updated
+     *
+     * @param delta the time in seconds being simulated by this update
+     */
+    protected void beginUpdate(float delta) {
+        timers.advance(delta);
+    }
+
+    /**
+     * @return the timers which run in this screen's game time
+     */
+    public TimerWheel getTimers() {
+        return timers;
+    }
+
+    /**
+     * Returns the delta time that the specified object should be updated with. Allows screens to speed up or slow
+     * down specific objects
+     *
+     * @param obj   the object being updated
+     * @param delta the screen's delta time
+     * @return the delta time to update the object with
+     */
+    protected float getObjectDelta(GameObject obj, float delta) {
+        return delta;
+    }
+
+    /**
+     * @return how far (0 to 1) the renderer is between the previous simulation tick and the next one
+     */
+    public float getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
+
+    /**
+     * Applies all of the object additions and removals which were requested during the last update
+     */
+    public void applyObjectChanges() {
+        if (!objectsToRemove.isEmpty()) {
+            for (GameObject obj : removalOrder) {
+                if (obj instanceof KeyHandler) keyHandlers.remove((KeyHandler) obj);
+
+                onObjectRemoved(obj);
+            }
+
+            objects.removeIf(objectsToRemove::contains); //single pass over the objects, compacting as it goes
+
+            for (List<GameObject> layer : layers) {
+                layer.removeIf(objectsToRemove::contains);
+            }
+
+            objectsToRemove.clear();
+            removalOrder.clear();
+        }
+
+        for (GameObject obj : objectsToAdd) {
+            objects.add(obj);
+            layers.get(obj.getLayer().ordinal()).add(obj);
+
+            if (obj instanceof KeyHandler) keyHandlers.add((KeyHandler) obj);
+
+            onObjectAdded(obj);
+        }
+
+        objectsToAdd.clear();
+    }
+
+    /**
+     * Called when an object is added to this screen, so sub-classes can keep track of specific objects
+     *
+     * @param obj the object that was added
+     */
+    protected void onObjectAdded(GameObject obj) {
+
+    }
+
+    /**
+     * Called when an object is about to be removed from this screen. May be called for objects which were never
+     * added, if they were asked to be removed anyway
+     *
+     * @param obj the object being removed
+     */
+    protected void onObjectRemoved(GameObject obj) {
+
     }
 
     /**
@@ -1,28 +1,55 @@
 package hashpizza.game.engine;
 
-import org.jsfml.graphics.ConstTexture;
-import org.jsfml.graphics.Sprite;
+import hashpizza.game.engine.util.SpriteStates;
+import org.jsfml.graphics.*;
+import org.jsfml.system.Vector2f;
 
 /**
  * Class to represent a textured object to render to the screen.
- * Uses the JSFML library to handle drawing internally
+ * Its texture, colour and transform are kept in Java, and a JSFML sprite is only created the first time it has to be
+ * drawn on its own, so sprites in headless windows never load JSFML's native libraries
  */
-public class GameSprite extends Sprite implements GameObject {
+public class GameSprite extends BasicTransformable implements GameObject {
 
     /**
      * The screen that this sprite belongs to
      */
     private GameScreen screen;
 
+    /**
+     * The texture drawn by this sprite
+     */
+    private ConstTexture texture;
+
+    /**
+     * The area of the texture drawn by this sprite
+     */
+    private IntRect textureRect = IntRect.EMPTY;
+
+    /**
+     * The colour the texture is multiplied by
+     */
+    private Color color = Color.WHITE;
+
+    /**
+     * The JSFML sprite used to draw this sprite when it can't be batched, or null until that first happens
+     */
+    private Sprite sprite;
+
+    /**
+     * Whether the texture, texture rect or colour have changed since they were last copied onto the JSFML sprite
+     */
+    private boolean spriteDirty = true;
+
     /**
      * Creates a game sprite with the specified texture
      *
      * @param texture the texture to use
      */
     public GameSprite(GameScreen screen, ConstTexture texture) {
-        super(texture);
-
         this.screen = screen;
+
+        if (texture != null) setTexture(texture);
     }
 
     /**
@@ -35,6 +62,169 @@ public class GameSprite extends Sprite implements GameObject {
         setScale(width / getTexture().getSize().x, height / getTexture().getSize().y);
     }
 
+    /**
+     * Sets the texture, keeping the texture rect unless it hasn't been set yet
+     *
+     * @param texture the new texture
+     */
+    public final void setTexture(ConstTexture texture) {
+        setTexture(texture, false);
+    }
+
+    /**
+     * Sets the texture, skipping the change if it is already the texture in use (e.g. when an animation hasn't moved
+     * onto its next frame)
+     *
+     * @param texture   the new texture
+     * @param resetRect whether to reset the texture rect to the whole of the new texture
+     */
+    public void setTexture(ConstTexture texture, boolean resetRect) {
+        if (texture == this.texture && !resetRect) {
+            SpriteStates.countSkippedCall();
+            return;
+        }
+
+        this.texture = texture;
+
+        if (resetRect || textureRect.equals(IntRect.EMPTY)) { //the same as JSFML, which shows the whole texture until a rect is set
+            textureRect = new IntRect(0, 0, texture.getSize().x, texture.getSize().y);
+        }
+
+        spriteDirty = true;
+    }
+
+    /**
+     * @return the texture drawn by this sprite
+     */
+    public ConstTexture getTexture() {
+        return texture;
+    }
+
+    /**
+     * @param textureRect the area of the texture to draw
+     */
+    public void setTextureRect(IntRect textureRect) {
+        this.textureRect = textureRect;
+        spriteDirty = true;
+    }
+
+    /**
+     * @return the area of the texture drawn by this sprite
+     */
+    public IntRect getTextureRect() {
+        return textureRect;
+    }
+
+    /**
+     * Sets the colour, skipping the change if it hasn't changed
+     *
+     * @param color the colour to multiply the texture by
+     */
+    public void setColor(Color color) {
+        if (color.equals(this.color)) {
+            SpriteStates.countSkippedCall();
+            return;
+        }
+
+        this.color = color;
+        spriteDirty = true;
+    }
+
+    /**
+     * @return the colour the texture is multiplied by
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Sets the scale, skipping the change if it hasn't changed
+     */
+    @Override
+    public void setScale(Vector2f scale) {
+        if (scale.equals(getScale())) {
+            SpriteStates.countSkippedCall();
+            return;
+        }
+
+        super.setScale(scale);
+    }
+
+    /**
+     * Sets the origin, skipping the change if it hasn't changed
+     */
+    @Override
+    public void setOrigin(Vector2f origin) {
+        if (origin.equals(getOrigin())) {
+            SpriteStates.countSkippedCall();
+            return;
+        }
+
+        super.setOrigin(origin);
+    }
+
+    /**
+     * @return the area drawn by this sprite, before it is transformed
+     */
+    public FloatRect getLocalBounds() {
+        return new FloatRect(0, 0, Math.abs(textureRect.width), Math.abs(textureRect.height));
+    }
+
+    /**
+     * @return the area drawn by this sprite, in the coordinates of its layer
+     */
+    public FloatRect getGlobalBounds() {
+        return getTransform().transformRect(getLocalBounds());
+    }
+
+    /**
+     * Draws this sprite on its own, outside of any sprite batch
+     */
+    @Override
+    public final void draw(RenderTarget renderTarget, RenderStates renderStates) {
+        draw(renderTarget, renderStates, null);
+    }
+
+    /**
+     * Draws this sprite, adding it to a sprite batch instead if its texture is in the atlas
+     *
+     * @param renderTarget the render target to draw to
+     * @param renderStates the render states to draw with
+     * @param batch        the batch to add this sprite to, or null to draw it on its own
+     */
+    public void draw(RenderTarget renderTarget, RenderStates renderStates, SpriteBatch batch) {
+        if (texture == null) return;
+
+        Transform transform = Transform.combine(renderStates.transform, getTransform());
+
+        if (batch != null) {
+            if (renderStates.shader == null && renderStates.texture == null && renderStates.blendMode == BlendMode.ALPHA
+                    && batch.add(renderTarget, texture, textureRect, transform, color)) {
+                return;
+            }
+
+            batch.flush(renderTarget); //keep the draw order
+            batch.countDrawCall();
+        }
+
+        if (sprite == null) sprite = new Sprite();
+
+        if (spriteDirty) {
+            sprite.setTexture(texture);
+            sprite.setTextureRect(textureRect);
+            sprite.setColor(color);
+
+            spriteDirty = false;
+        }
+
+        sprite.draw(renderTarget, new RenderStates(renderStates.blendMode, transform, renderStates.texture, renderStates.shader));
+    }
+
+    @Override
+    public FloatRect getDrawBounds() {
+        return getGlobalBounds();
+    }
+
     /**
      * Gets the screen
      *
@@ -48,4 +238,9 @@ public class GameSprite extends Sprite implements GameObject {
     public void update(float delta) {
 
     }
+
+    @Override
+    public void snapshot(FrameSnapshot snapshot) {
+        snapshot.addSprite(this);
+    }
 }
@@ -0,0 +1,138 @@
+package hashpizza.game.engine;
+
+import org.jsfml.graphics.*;
+
+/**
+ * A string of text to render to the screen. Like {@link GameSprite}, its state is kept in Java and a JSFML text is only
+ * created when it is first drawn or measured, so text in headless windows (where the fonts aren't loaded) never loads
+ * JSFML's native libraries
+ */
+public class GameText extends BasicTransformable implements Drawable {
+
+    /**
+     * The string to display
+     */
+    private String string = "";
+
+    /**
+     * The font to display the string in, or null if there isn't one (e.g. in a headless process)
+     */
+    private ConstFont font;
+
+    /**
+     * The size of the characters, in pixels
+     */
+    private int characterSize = 30;
+
+    /**
+     * The colour of the text
+     */
+    private Color color = Color.WHITE;
+
+    /**
+     * The JSFML text used to measure and draw this text, or null until it is first needed
+     */
+    private Text text;
+
+    /**
+     * Whether the string, font, size or colour have changed since they were last copied onto the JSFML text
+     */
+    private boolean textDirty = true;
+
+    /**
+     * Creates an empty text with no font
+     */
+    public GameText() {
+
+    }
+
+    /**
+     * Creates a text
+     *
+     * @param string the string to display
+     * @param font   the font to display it in
+     */
+    public GameText(String string, ConstFont font) {
+        this.string = string;
+        this.font = font;
+    }
+
+    /**
+     * @param string the string to display
+     */
+    public void setString(String string) {
+        if (string.equals(this.string)) return;
+
+        this.string = string;
+        textDirty = true;
+    }
+
+    /**
+     * @return the string being displayed
+     */
+    public String getString() {
+        return string;
+    }
+
+    /**
+     * @param font the font to display the string in
+     */
+    public void setFont(ConstFont font) {
+        this.font = font;
+        textDirty = true;
+    }
+
+    /**
+     * @param characterSize the size of the characters, in pixels
+     */
+    public void setCharacterSize(int characterSize) {
+        this.characterSize = characterSize;
+        textDirty = true;
+    }
+
+    /**
+     * @param color the colour of the text
+     */
+    public void setColor(Color color) {
+        if (color.equals(this.color)) return;
+
+        this.color = color;
+        textDirty = true;
+    }
+
+    /**
+     * @return the area covered by the text before it is transformed, which is empty if there is no font to measure it
+     * with
+     */
+    public FloatRect getLocalBounds() {
+        if (font == null) return new FloatRect(0, 0, 0, 0);
+
+        return getText().getLocalBounds();
+    }
+
+    @Override
+    public void draw(RenderTarget renderTarget, RenderStates renderStates) {
+        if (font == null) return;
+
+        getText().draw(renderTarget, new RenderStates(renderStates.blendMode,
+                Transform.combine(renderStates.transform, getTransform()), renderStates.texture, renderStates.shader));
+    }
+
+    /**
+     * @return the JSFML text, created if it hasn't been yet and brought up to date with this text
+     */
+    private Text getText() {
+        if (text == null) text = new Text();
+
+        if (textDirty) {
+            text.setString(string);
+            text.setFont(font);
+            text.setCharacterSize(characterSize);
+            text.setColor(color);
+
+            textDirty = false;
+        }
+
+        return text;
+    }
+}
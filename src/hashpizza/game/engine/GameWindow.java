@@ -2,9 +2,12 @@ package hashpizza.game.engine;
 
 import hashpizza.game.engine.ui.screens.PauseScreen;
 import hashpizza.game.engine.ui.screens.SplashScreen;
+import hashpizza.game.engine.util.GridUtils;
+import hashpizza.game.engine.util.SpriteStates;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.Color;
 import org.jsfml.graphics.Image;
+import org.jsfml.graphics.RenderStates;
 import org.jsfml.graphics.RenderWindow;
 import org.jsfml.system.Clock;
 import org.jsfml.system.Time;
@@ -13,15 +16,39 @@ import org.jsfml.window.VideoMode;
 import org.jsfml.window.WindowStyle;
 import org.jsfml.window.event.Event;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Represents the window containing a game screen, which has all of the objects to render
  */
 public class GameWindow {
 
     /**
-     * The screen that's currently active to render onto the window
+     * The default number of simulation ticks per second
+     */
+    public static final int DEFAULT_TICK_RATE = 120;
+
+    /**
+     * The maximum amount of real time (in seconds) that can be simulated in one frame. Stops a long hitch from
+     * queueing up a huge number of ticks
+     */
+    static final float MAX_FRAME_TIME = 0.25f;
+
+    /**
+     * The maximum number of simulation ticks to run per frame. If we can't keep up, the remaining time is dropped
+     * so that the game slows down rather than spiralling into ever longer frames
+     */
+    static final int MAX_TICKS_PER_FRAME = 10;
+
+    /**
+     * The screen that's currently active to render onto the window. Volatile since in pipelined mode it can be
+     * changed by the simulation thread
      */
-    private GameScreen activeScreen;
+    private volatile GameScreen activeScreen;
 
     /**
      * If the game is paused, we will switch to the pause screen, when it is un-paused it should resume
@@ -42,18 +69,76 @@ public class GameWindow {
     /**
      * Slow-motion mode toggle, used for debugging the game's movement etc.
      */
-    private boolean debugSlowMotion = false;
+    private volatile boolean debugSlowMotion = false;
+
+    /**
+     * The number of simulation ticks per second, or 0 if the simulation is updated once per drawn frame with a
+     * variable delta time
+     */
+    private int tickRate;
+
+    /**
+     * Whether this window is running without a render window, e.g. for automated testing and benchmarking
+     */
+    private final boolean headless;
 
     /**
-     * Creates the game window with the specified width and height
+     * Whether a headless window has been created in this process. Once one has, textures, fonts and sounds are no
+     * longer loaded into JSFML, since its native libraries need a display and OpenGL, which headless machines may not
+     * have
+     */
+    private static volatile boolean headlessProcess = false;
+
+    /**
+     * Debug profiler for timing each class of object on the active screen
+     */
+    private final FrameProfiler profiler = new FrameProfiler();
+
+    /**
+     * Batches the sprites drawn each frame by their atlas page, so that they take as few draw calls as possible. Null
+     * if this window is headless, since it never draws anything
+     */
+    private SpriteBatch spriteBatch;
+
+    /**
+     * Creates the game window with the specified width and height, running the simulation at the default tick rate
      *
      * @param width  the width of the window
      * @param height the height of the window
      */
     public GameWindow(int width, int height) {
+        this(width, height, DEFAULT_TICK_RATE, false);
+    }
+
+    /**
+     * Creates the game window with the specified width, height and simulation tick rate
+     *
+     * @param width    the width of the window
+     * @param height   the height of the window
+     * @param tickRate the number of simulation ticks per second, or 0 to update once per frame with a variable delta
+     */
+    public GameWindow(int width, int height, int tickRate) {
+        this(width, height, tickRate, false);
+    }
+
+    /**
+     * Creates the game window with the specified width, height and simulation tick rate
+     *
+     * @param width     the width of the window
+     * @param height    the height of the window
+     * @param tickRate  the number of simulation ticks per second, or 0 to update once per frame with a variable delta
+     * @param pipelined whether to run the simulation on its own thread, with the window drawing snapshots of it
+     */
+    public GameWindow(int width, int height, int tickRate, boolean pipelined) {
+        this(tickRate, false);
+
+        this.width = width;
+        this.height = height;
+
+        spriteBatch = new SpriteBatch(Textures.getAtlas());
 
         RenderWindow window = new RenderWindow();
-        window.create(new VideoMode(this.width = width, this.height = height), "Guilds of Lancaster", WindowStyle.NONE);
+        window.create(new VideoMode(width, height), "Guilds of Lancaster", WindowStyle.NONE);
         window.setMouseCursorVisible(false);
         window.setVerticalSyncEnabled(true);
         //window.setFramerateLimit(60);
@@ -64,57 +149,185 @@ public class GameWindow {
         setActiveScreen(new SplashScreen(this)); //start at the splash screen
         //setActiveScreen(new LevelSelectScreen(this)); //start at the splash screen
 
+        if (pipelined) {
+            if (this.tickRate == 0) this.tickRate = DEFAULT_TICK_RATE; //the simulation thread needs a fixed tick
+
+            runPipelined(window);
+        } else {
+            run(window);
+        }
+    }
+
+    /**
+     * Runs the game loop, updating and drawing the active screen on this thread until the window is closed
+     *
+     * @param window the render window
+     */
+    private void run(RenderWindow window) {
         Clock clock = new Clock();
 
+        float accumulator = 0; //real time which still needs to be simulated, in fixed tick mode
+
         while (window.isOpen()) {
             float delta = clock.restart().asSeconds(); //time in seconds since last draw
 
-            delta = Math.min(0.5f, delta); //max the delta out to try to avoid tunneling
+            if (this.tickRate > 0) {
+                float tickDelta = 1f / this.tickRate;
+
+                delta = Math.min(MAX_FRAME_TIME, delta);
+
+                if (debugSlowMotion) delta *= 0.1f; //in slow-mo mode, run at 10x slower speed
+
+                accumulator += delta;
+
+                //run as many fixed ticks as are needed to catch up with real time
+                int ticks = 0;
+                while (accumulator >= tickDelta && ticks < MAX_TICKS_PER_FRAME) {
+                    if (activeScreen != null) {
+                        activeScreen.tick(tickDelta);
+                        activeScreen.applyObjectChanges();
+                        activeScreen.postUpdate();
+                    }
+
+                    accumulator -= tickDelta;
+                    ticks++;
+                }
+
+                if (ticks == MAX_TICKS_PER_FRAME) accumulator %= tickDelta; //drop what we couldn't keep up with
+
+                window.clear(activeScreen == null ? Color.BLACK : activeScreen.getBackgroundColor());
+
+                if (activeScreen != null) {
+                    activeScreen.draw(window, accumulator / tickDelta);
+                }
+            } else {
+                delta = Math.min(0.5f, delta); //max the delta out so one slow frame doesn't skip too far ahead
+
+                if (debugSlowMotion) delta *= 0.1f; //in slow-mo mode, run at 10x slower speed
+
+                window.clear(activeScreen == null ? Color.BLACK : activeScreen.getBackgroundColor());
+
+                if (activeScreen != null) {
+                    //update and draw all objects onto the screen
+                    activeScreen.update(window, delta);
+
+                    //handle removing and adding objects here
+                    activeScreen.applyObjectChanges();
+
+                    activeScreen.postUpdate();
+                }
+            }
+
+            int skippedCalls = SpriteStates.takeSkippedCalls(); //taken every frame so it is only ever one frame's worth
+
+            if (profiler.isEnabled()) {
+                profiler.endFrame(delta);
+                profiler.setDrawStats(spriteBatch.getDrawCalls(), activeScreen == null ? 0 : activeScreen.getCulledObjects(), skippedCalls);
+                profiler.draw(window, RenderStates.DEFAULT);
+            }
+
+            window.display();
+
+            handleEvents(window);
+        }
+    }
+
+    /**
+     * Runs the game loop with the simulation on a separate thread. This thread draws the latest snapshot published
+     * by the simulation whilst the simulation works on the next tick, until the window is closed
+     *
+     * @param window the render window
+     */
+    private void runPipelined(RenderWindow window) {
+        Lock simLock = new ReentrantLock();
 
-            if (debugSlowMotion) delta *= 0.1f; //in slow-mo mode, run at 10x slower speed
+        SimulationThread simulation = new SimulationThread(this, simLock);
+        simulation.start();
 
-            window.clear(activeScreen == null ? Color.BLACK : activeScreen.getBackgroundColor());
+        Clock clock = new Clock();
 
-            if (activeScreen != null) {
-                //update and draw all objects onto the screen
-                activeScreen.update(window, delta);
+        while (window.isOpen()) {
+            FrameSnapshot frame = simulation.takeFrame();
 
-                //handle removing and adding objects here
-                activeScreen.getObjects().removeAll(activeScreen.getObjectsToRemove());
-                activeScreen.getObjectsToRemove().clear();
+            window.clear(frame.getBackgroundColor());
+            frame.draw(window, simLock, spriteBatch);
 
-                activeScreen.getObjects().addAll(activeScreen.getObjectsToAdd());
-                activeScreen.getObjectsToAdd().clear();
+            int skippedCalls = SpriteStates.takeSkippedCalls(); //includes the calls skipped by the simulation since the last frame
 
-                activeScreen.postUpdate();
+            if (profiler.isEnabled()) { //only updates are profiled, since snapshots are drawn without their objects
+                profiler.endFrame(clock.restart().asSeconds());
+                profiler.setDrawStats(spriteBatch.getDrawCalls(), frame.getCulledObjects(), skippedCalls);
+                profiler.draw(window, RenderStates.DEFAULT);
             }
 
             window.display();
 
-            //handle window events
-            for (Event ev : window.pollEvents()) {
-                if (ev.type == Event.Type.CLOSED) {
-                    window.close();
-                } else if (ev.type == Event.Type.KEY_PRESSED || ev.type == Event.Type.KEY_RELEASED) {
-                    activeScreen.handleEvent(ev);
-
-                    //handling pauses...
-                    if (ev.asKeyEvent().key == Keyboard.Key.ESCAPE && ev.type == Event.Type.KEY_PRESSED) {
-                        if (activeScreen instanceof PauseScreen) { //if it's already paused, unpause
-                            ((PauseScreen) activeScreen).unpause();
-                            prePauseScreen = null;
-                        } else if (activeScreen.isPausable()) { //if the screen is pausable, pause it
-                            prePauseScreen = activeScreen;
-                            setActiveScreen(new PauseScreen(this, prePauseScreen, window));
-                        }
-                    } else if (ev.asKeyEvent().key == Keyboard.Key.P && ev.type == Event.Type.KEY_PRESSED) {
-                        debugSlowMotion = !debugSlowMotion;
+            //events change the screens' state, so handle them whilst the simulation is paused
+            simLock.lock();
+            try {
+                handleEvents(window);
+            } finally {
+                simLock.unlock();
+            }
+        }
+
+        simulation.shutdown();
+    }
+
+    /**
+     * Handles all of the window's pending events
+     *
+     * @param window the render window
+     */
+    private void handleEvents(RenderWindow window) {
+        for (Event ev : window.pollEvents()) {
+            if (ev.type == Event.Type.CLOSED) {
+                window.close();
+            } else if (ev.type == Event.Type.KEY_PRESSED || ev.type == Event.Type.KEY_RELEASED) {
+                activeScreen.handleEvent(ev);
+
+                //handling pauses...
+                if (ev.asKeyEvent().key == Keyboard.Key.ESCAPE && ev.type == Event.Type.KEY_PRESSED) {
+                    if (activeScreen instanceof PauseScreen) { //if it's already paused, unpause
+                        ((PauseScreen) activeScreen).unpause();
+                        prePauseScreen = null;
+                    } else if (activeScreen.isPausable()) { //if the screen is pausable, pause it
+                        prePauseScreen = activeScreen;
+                        setActiveScreen(new PauseScreen(this, prePauseScreen, window));
+                    }
+                } else if (ev.asKeyEvent().key == Keyboard.Key.P && ev.type == Event.Type.KEY_PRESSED) {
+                    debugSlowMotion = !debugSlowMotion;
+                } else if (ev.asKeyEvent().key == Keyboard.Key.F3 && ev.type == Event.Type.KEY_PRESSED) {
+                    profiler.setEnabled(!profiler.isEnabled()); //toggle the profiler overlay
+                } else if (ev.asKeyEvent().key == Keyboard.Key.F4 && ev.type == Event.Type.KEY_PRESSED && profiler.isEnabled()) {
+                    try {
+                        Path path = Paths.get("./profile-" + System.currentTimeMillis() + ".csv");
+                        profiler.dumpCsv(path);
+                        System.out.println("Profile written to " + path);
+                    } catch (IOException ex) {
+                        ex.printStackTrace();
                     }
                 }
             }
         }
     }
 
+    /**
+     * Creates a game window the size of the game screen without opening it. Headless windows don't render anything
+     * or play audio, and are driven by whoever created them instead of running their own game loop
+     *
+     * @param tickRate the number of simulation ticks per second
+     * @param headless whether this window is headless
+     */
+    protected GameWindow(int tickRate, boolean headless) {
+        this.width = GridUtils.SCREEN_WIDTH;
+        this.height = GridUtils.SCREEN_HEIGHT;
+        this.tickRate = Math.max(0, tickRate);
+        this.headless = headless;
+
+        if (headless) headlessProcess = true;
+    }
+
     /**
      * @return the window width
      */
@@ -129,12 +342,66 @@ public class GameWindow {
         return height;
     }
 
+    /**
+     * @return the number of simulation ticks per second, or 0 if the simulation runs once per frame
+     */
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    /**
+     * @return the debug profiler for timing objects on the active screen
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * @return the batch the sprites drawn each frame are added to, or null if this window is headless
+     */
+    public SpriteBatch getSpriteBatch() {
+        return spriteBatch;
+    }
+
+    /**
+     * @return whether the debug slow-motion mode is on
+     */
+    boolean isDebugSlowMotion() {
+        return debugSlowMotion;
+    }
+
+    /**
+     * @return whether this window is headless, i.e. not rendering or playing audio
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * @return whether a headless window has been created in this process, in which case nothing should load JSFML's
+     * native libraries
+     */
+    public static boolean isHeadlessProcess() {
+        return headlessProcess;
+    }
+
+    /**
+     * @return the screen that's currently active
+     */
+    public GameScreen getActiveScreen() {
+        return activeScreen;
+    }
+
     /**
      * Changes the current active screen
      *
      * @param screen the GameScreen which will be the new active screen
      */
     public void setActiveScreen(GameScreen screen) {
+        if (headless) { //no audio to worry about
+            activeScreen = screen;
+            return;
+        }
 
         //whether the previous audio should carry on playing - it should if it is the same as the new screen's audio
         boolean continuePlaying = activeScreen != null && activeScreen.getMusic() != null && activeScreen.getMusic().equals(screen.getMusic());
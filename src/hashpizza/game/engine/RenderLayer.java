@@ -0,0 +1,49 @@
+package hashpizza.game.engine;
+
+/**
+ * The layers that a screen's objects are drawn in. Layers are drawn in the order they are declared, and objects
+ * within a layer are drawn in the order they were added to the screen
+ */
+public enum RenderLayer {
+
+    /**
+     * Backdrops drawn behind everything else, e.g. the sky and clouds
+     */
+    BACKGROUND(false),
+
+    /**
+     * The game world, e.g. tiles, the player and enemies. The default layer
+     */
+    WORLD(true),
+
+    /**
+     * Visual effects drawn over the world, e.g. particles
+     */
+    EFFECTS(true),
+
+    /**
+     * The heads-up display, e.g. the ability slots
+     */
+    HUD(false),
+
+    /**
+     * Overlays drawn on top of everything else
+     */
+    OVERLAY(false);
+
+    /**
+     * Whether this layer is drawn through the screen's camera
+     */
+    private final boolean world;
+
+    RenderLayer(boolean world) {
+        this.world = world;
+    }
+
+    /**
+     * @return whether this layer is part of the world, and so is drawn through the screen's camera
+     */
+    public boolean isWorld() {
+        return world;
+    }
+}
@@ -0,0 +1,148 @@
+package hashpizza.game.engine;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the active screen's simulation at a fixed tick rate on its own thread, publishing a snapshot of the screen
+ * after each batch of ticks for the window to draw. Three snapshots are rotated so that the simulation never writes
+ * into the snapshot being drawn, and the window always draws the latest complete one
+ */
+class SimulationThread extends Thread {
+
+    /**
+     * The window whose active screen is simulated
+     */
+    private final GameWindow window;
+
+    /**
+     * Held whilst the simulation is updating, so the window can pause it to handle events and draw live objects
+     */
+    private final Lock simLock;
+
+    /**
+     * The snapshot being captured, the latest complete snapshot, and the snapshot being drawn
+     */
+    private FrameSnapshot writing = new FrameSnapshot(), ready = new FrameSnapshot(), drawing = new FrameSnapshot();
+
+    /**
+     * Whether a new snapshot has been published since the window last took one
+     */
+    private boolean newFrame = false;
+
+    /**
+     * Whether the simulation should keep running
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Creates the simulation thread
+     *
+     * @param window  the window to simulate the active screen of
+     * @param simLock the lock to hold whilst updating
+     */
+    SimulationThread(GameWindow window, Lock simLock) {
+        super("Simulation");
+
+        this.window = window;
+        this.simLock = simLock;
+
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        float tickDelta = 1f / window.getTickRate();
+        float accumulator = 0;
+
+        long lastTime = System.nanoTime();
+
+        while (running) {
+            long now = System.nanoTime();
+            float delta = Math.min(GameWindow.MAX_FRAME_TIME, (now - lastTime) / 1e9f);
+            lastTime = now;
+
+            if (window.isDebugSlowMotion()) delta *= 0.1f; //in slow-mo mode, run at 10x slower speed
+
+            accumulator += delta;
+
+            int ticks = 0;
+            while (accumulator >= tickDelta && ticks < GameWindow.MAX_TICKS_PER_FRAME) {
+                simLock.lock();
+                try {
+                    GameScreen screen = window.getActiveScreen();
+
+                    if (screen != null) {
+                        screen.tick(tickDelta);
+                        screen.applyObjectChanges();
+                        screen.postUpdate();
+                    }
+                } finally {
+                    simLock.unlock();
+                }
+
+                accumulator -= tickDelta;
+                ticks++;
+            }
+
+            if (ticks == GameWindow.MAX_TICKS_PER_FRAME) accumulator %= tickDelta; //drop what we couldn't keep up with
+
+            if (ticks > 0) {
+                simLock.lock();
+                try {
+                    GameScreen screen = window.getActiveScreen();
+                    if (screen != null) screen.captureSnapshot(writing);
+                } finally {
+                    simLock.unlock();
+                }
+
+                publish();
+            }
+
+            //wait until the next tick is due
+            long waitNanos = (long) ((tickDelta - accumulator) * 1e9f);
+            if (waitNanos > 0) LockSupport.parkNanos(waitNanos);
+        }
+    }
+
+    /**
+     * Publishes the snapshot that has just been captured as the latest complete snapshot
+     */
+    private synchronized void publish() {
+        FrameSnapshot temp = ready;
+        ready = writing;
+        writing = temp;
+
+        newFrame = true;
+    }
+
+    /**
+     * Gets the latest complete snapshot to draw. The returned snapshot won't be changed until the next call
+     *
+     * @return the snapshot to draw
+     */
+    synchronized FrameSnapshot takeFrame() {
+        if (newFrame) {
+            FrameSnapshot temp = drawing;
+            drawing = ready;
+            ready = temp;
+
+            newFrame = false;
+        }
+
+        return drawing;
+    }
+
+    /**
+     * Stops the simulation and waits for the thread to finish
+     */
+    void shutdown() {
+        running = false;
+
+        try {
+            join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
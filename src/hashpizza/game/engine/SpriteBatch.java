@@ -0,0 +1,120 @@
+package hashpizza.game.engine;
+
+import hashpizza.game.engine.util.TextureAtlas;
+import org.jsfml.graphics.*;
+import org.jsfml.system.Vector2f;
+
+/**
+ * Collects consecutive sprites whose textures are on the same atlas page into one vertex array, and draws them all
+ * with a single draw call when the page changes or something else needs to be drawn in between. Anything which can't
+ * be batched must be drawn after calling {@link #flush(RenderTarget)}, so that the draw order is kept
+ */
+public class SpriteBatch {
+
+    /**
+     * The atlas the sprites' textures are looked up in
+     */
+    private final TextureAtlas atlas;
+
+    /**
+     * The quads of the sprites waiting to be drawn
+     */
+    private final VertexArray vertices = new VertexArray(PrimitiveType.QUADS);
+
+    /**
+     * The atlas page of the sprites waiting to be drawn, or null if there are none
+     */
+    private ConstTexture page;
+
+    /**
+     * The number of draw calls and the number of sprites drawn since the counts were last reset
+     */
+    private int drawCalls, sprites;
+
+    /**
+     * Creates a sprite batch
+     *
+     * @param atlas the atlas the sprites' textures are looked up in
+     */
+    public SpriteBatch(TextureAtlas atlas) {
+        this.atlas = atlas;
+    }
+
+    /**
+     * Adds a sprite to the batch, drawing the sprites already in it first if they are on a different page
+     *
+     * @param target      the render target being drawn to
+     * @param texture     the sprite's texture
+     * @param textureRect the area of the texture the sprite shows
+     * @param transform   the sprite's transform, including any parent transform
+     * @param colour      the sprite's colour
+     * @return true if the sprite was added, false if its texture isn't in the atlas and it must be drawn on its own
+     */
+    public boolean add(RenderTarget target, ConstTexture texture, IntRect textureRect, Transform transform, Color colour) {
+        TextureAtlas.Region region = texture != null ? atlas.getRegion(texture) : null;
+        if (region == null) return false;
+
+        if (page != region.getPage()) {
+            flush(target);
+            page = region.getPage();
+        }
+
+        float width = Math.abs(textureRect.width), height = Math.abs(textureRect.height);
+
+        float left = region.getX() + textureRect.left, top = region.getY() + textureRect.top;
+        float right = left + textureRect.width, bottom = top + textureRect.height;
+
+        vertices.add(new Vertex(transform.transformPoint(0, 0), colour, new Vector2f(left, top)));
+        vertices.add(new Vertex(transform.transformPoint(width, 0), colour, new Vector2f(right, top)));
+        vertices.add(new Vertex(transform.transformPoint(width, height), colour, new Vector2f(right, bottom)));
+        vertices.add(new Vertex(transform.transformPoint(0, height), colour, new Vector2f(left, bottom)));
+
+        sprites++;
+
+        return true;
+    }
+
+    /**
+     * Draws all of the sprites waiting in the batch
+     *
+     * @param target the render target to draw to
+     */
+    public void flush(RenderTarget target) {
+        if (vertices.isEmpty()) return;
+
+        vertices.draw(target, new RenderStates(page));
+        vertices.clear();
+        page = null;
+
+        drawCalls++;
+    }
+
+    /**
+     * Counts a draw call made outside of the batch, e.g. for a sprite which couldn't be batched
+     */
+    public void countDrawCall() {
+        drawCalls++;
+    }
+
+    /**
+     * @return the number of draw calls since the counts were last reset
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * @return the number of sprites drawn through the batch since the counts were last reset
+     */
+    public int getSpritesBatched() {
+        return sprites;
+    }
+
+    /**
+     * Resets the draw call and sprite counts, e.g. at the start of each frame
+     */
+    public void resetCounts() {
+        drawCalls = 0;
+        sprites = 0;
+    }
+}
@@ -0,0 +1,155 @@
+package hashpizza.game.engine;
+
+import org.jsfml.graphics.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws a group of objects which rarely change (e.g. the background and terrain) into a render texture once, and then
+ * draws just that texture each frame. The objects are updated by this layer rather than being added to the screen, and
+ * must call {@link #invalidate()} whenever they change how they look so the texture gets redrawn
+ */
+public class StaticLayer implements GameObject {
+
+    /**
+     * The objects drawn into the texture, in the order they are drawn
+     */
+    private final List<GameObject> members = new ArrayList<>();
+
+    /**
+     * The size of the texture
+     */
+    private final int width, height;
+
+    /**
+     * The layer the texture is drawn in
+     */
+    private final RenderLayer layer;
+
+    /**
+     * The texture the objects are drawn into, created when the layer is first drawn
+     */
+    private RenderTexture texture;
+
+    /**
+     * Draws the texture onto the screen
+     */
+    private Sprite sprite;
+
+    /**
+     * Whether the texture couldn't be created, in which case the objects are drawn directly every frame
+     */
+    private boolean uncached = false;
+
+    /**
+     * Whether the objects have changed since the texture was last drawn
+     */
+    private boolean dirty = true;
+
+    /**
+     * The number of times the texture has been redrawn
+     */
+    private int redraws = 0;
+
+    /**
+     * Creates an empty static layer
+     *
+     * @param width  the width of the area to cache, usually the screen width
+     * @param height the height of the area to cache, usually the screen height
+     * @param layer  the layer to draw the cached objects in
+     */
+    public StaticLayer(int width, int height, RenderLayer layer) {
+        this.width = width;
+        this.height = height;
+        this.layer = layer;
+    }
+
+    /**
+     * Adds an object to be drawn into the texture, on top of the objects already added
+     *
+     * @param obj the object to add
+     */
+    public void add(GameObject obj) {
+        members.add(obj);
+        invalidate();
+    }
+
+    /**
+     * Removes an object from the texture
+     *
+     * @param obj the object to remove
+     */
+    public void remove(GameObject obj) {
+        if (members.remove(obj)) invalidate();
+    }
+
+    /**
+     * Marks the texture as out of date, so it is redrawn the next time this layer is drawn
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * @return the number of times the texture has been redrawn
+     */
+    public int getRedraws() {
+        return redraws;
+    }
+
+    @Override
+    public void update(float delta) {
+        for (int i = 0; i < members.size(); i++) {
+            members.get(i).update(delta);
+        }
+    }
+
+    @Override
+    public void draw(RenderTarget renderTarget, RenderStates renderStates) {
+        if (texture == null && !uncached) createTexture();
+
+        if (uncached) {
+            for (GameObject obj : members) obj.draw(renderTarget, renderStates);
+            return;
+        }
+
+        if (dirty) {
+            texture.clear(Color.TRANSPARENT);
+            for (GameObject obj : members) obj.draw(texture, RenderStates.DEFAULT);
+            texture.display();
+
+            dirty = false;
+            redraws++;
+        }
+
+        sprite.draw(renderTarget, renderStates);
+    }
+
+    @Override
+    public FloatRect getDrawBounds() {
+        return new FloatRect(0, 0, width, height); //the texture is always drawn at the layer's origin
+    }
+
+    @Override
+    public RenderLayer getLayer() {
+        return layer;
+    }
+
+    /**
+     * Creates the texture the objects are drawn into, falling back to drawing them directly if it can't be created
+     */
+    private void createTexture() {
+        try {
+            texture = new RenderTexture();
+            texture.create(width, height);
+
+            sprite = new Sprite(texture.getTexture());
+        } catch (TextureCreationException ex) {
+            ex.printStackTrace();
+
+            texture = null;
+            uncached = true;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package hashpizza.game.engine.platforming;
 
+import hashpizza.game.engine.RenderLayer;
 import hashpizza.game.engine.util.AnimatedTexture;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.Color;
@@ -39,6 +40,8 @@ public class AbilityParticles extends GameEntity {
         setPhysics(false);
         setIgnoresCollisions(true);
         setHitbox(null);
+        setCollisionCategory(CollisionLayers.NONE);
+        setCollisionMask(CollisionLayers.NONE);
     }
 
     /**
@@ -65,7 +68,7 @@ public class AbilityParticles extends GameEntity {
     }
 
     @Override
-    public boolean handleCollision(GameEntity collidesWith) {
-        return false; //we don't collide with anything
+    public RenderLayer getLayer() {
+        return RenderLayer.EFFECTS;
     }
 }
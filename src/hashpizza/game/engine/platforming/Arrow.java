@@ -27,8 +27,10 @@ public class Arrow extends GameEntity {
         super(screen, position, facingLeft, TEXTURE_ARROW);
 
         setGravity(false);
+        setCollisionCategory(CollisionLayers.ARROW);
+        setCollisionMask(CollisionLayers.ALL & ~(CollisionLayers.ARROW | CollisionLayers.PLAYER)); //no collision with other arrows or the player
 
-        velocity = new Vector2f((facingLeft ? -1 : 1) * Math.min(3f, Math.max(0.5f, drawDistance)) * 6f, 0);
+        setVelocity((facingLeft ? -1 : 1) * Math.min(3f, Math.max(0.5f, drawDistance)) * 6f, 0);
     }
 
     @Override
@@ -39,9 +41,6 @@ public class Arrow extends GameEntity {
 
     @Override
     public boolean handleCollision(GameEntity collidesWith) {
-        if (collidesWith instanceof Arrow || collidesWith instanceof Player)
-            return false; //no collision with other arrows or the player
-
         if (collidesWith instanceof Enemy) {
             collidesWith.setHealth(0);
             getScreen().removeObject(collidesWith); //kill the object on collision
@@ -51,4 +50,11 @@ public class Arrow extends GameEntity {
 
         return true;
     }
+
+    @Override
+    public boolean handleTileCollision() {
+        getScreen().removeObject(this); //remove ourselves when we hit the terrain
+
+        return true;
+    }
 }
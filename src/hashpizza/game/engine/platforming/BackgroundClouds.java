@@ -1,6 +1,10 @@
 package hashpizza.game.engine.platforming;
 
+import hashpizza.game.engine.FrameSnapshot;
 import hashpizza.game.engine.GameObject;
+import hashpizza.game.engine.GameSprite;
+import hashpizza.game.engine.RenderLayer;
+import hashpizza.game.engine.StaticLayer;
 import hashpizza.game.engine.util.GridUtils;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.*;
@@ -19,20 +23,29 @@ public class BackgroundClouds implements GameObject {
     /**
      * Two sprites to allow for seamless scrolling
      */
-    private Sprite clouds1, clouds2;
+    private GameSprite clouds1, clouds2;
 
     /**
      * For the cloud scrolling
      */
     private float cloudOffset = 0;
 
+    /**
+     * The layer the clouds are cached in, redrawn each time they scroll a whole pixel, or null if they aren't cached
+     */
+    private final StaticLayer cache;
+
     /**
      * Creates background clouds
+     *
+     * @param cache the layer the clouds are cached in, or null if they aren't cached
      */
-    public BackgroundClouds() {
-        clouds1 = new Sprite(TEXTURE_CLOUDS);
+    public BackgroundClouds(StaticLayer cache) {
+        this.cache = cache;
+
+        clouds1 = new GameSprite(null, TEXTURE_CLOUDS);
         clouds1.setColor(new Color(255, 255, 255, 128));
-        clouds2 = new Sprite(TEXTURE_CLOUDS);
+        clouds2 = new GameSprite(null, TEXTURE_CLOUDS);
         clouds2.setColor(new Color(255, 255, 255, 128));
         clouds2.setOrigin(new Vector2f(GridUtils.SCREEN_WIDTH, 0));
     }
@@ -45,10 +58,13 @@ public class BackgroundClouds implements GameObject {
             cloudOffset += GridUtils.SCREEN_WIDTH;
         }
 
-        Vector2f pos = new Vector2f(cloudOffset, 0);
+        Vector2f pos = new Vector2f((float) Math.floor(cloudOffset), 0); //in whole pixels, so the cache is redrawn less
+        if (pos.equals(clouds1.getPosition())) return;
 
         clouds1.setPosition(pos);
         clouds2.setPosition(pos);
+
+        if (cache != null) cache.invalidate();
     }
 
     @Override
@@ -56,4 +72,15 @@ public class BackgroundClouds implements GameObject {
         clouds1.draw(renderTarget, renderStates);
         clouds2.draw(renderTarget, renderStates);
     }
+
+    @Override
+    public void snapshot(FrameSnapshot snapshot) {
+        snapshot.addSprite(clouds1);
+        snapshot.addSprite(clouds2);
+    }
+
+    @Override
+    public RenderLayer getLayer() {
+        return RenderLayer.BACKGROUND;
+    }
 }
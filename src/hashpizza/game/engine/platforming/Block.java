@@ -4,7 +4,6 @@ import hashpizza.game.engine.util.GridUtils;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.Color;
 import org.jsfml.graphics.ConstTexture;
-import org.jsfml.graphics.RectangleShape;
 import org.jsfml.system.Vector2f;
 
 /**
@@ -32,13 +31,9 @@ public class Block extends GameEntity {
         super(screen, Vector2f.ZERO, false, texture);
 
         setPosition(GridUtils.convertGridCoordinatesToPixels(x, y));
-        setIgnoresCollisions(true);
-
-        RectangleShape rs = new RectangleShape(new Vector2f(GridUtils.TILE_WIDTH, GridUtils.TILE_HEIGHT));
-        rs.setPosition(GridUtils.convertGridCoordinatesToPixels(x, y));
+        setBodyState(BodyState.STATIC); //blocks only move if made kinematic
+        setCollisionCategory(CollisionLayers.BLOCK);
 
         if (colour != null) setColor(colour);
-        setPhysics(true);
-        setGravity(false);
     }
 }
@@ -0,0 +1,28 @@
+package hashpizza.game.engine.platforming;
+
+/**
+ * How an entity takes part in physics each update
+ */
+public enum BodyState {
+
+    /**
+     * Never moved by physics, but other entities can still collide with it
+     */
+    STATIC,
+
+    /**
+     * Moved by its velocity, ignoring gravity and collisions. Wakes any sleeping entities it touches
+     */
+    KINEMATIC,
+
+    /**
+     * Moved by its velocity and gravity, and stopped by the terrain and other entities
+     */
+    DYNAMIC,
+
+    /**
+     * A dynamic entity which has come to rest on something that doesn't move, so is skipped until it is woken by
+     * a change in velocity, a collision or being moved
+     */
+    SLEEPING
+}
@@ -0,0 +1,39 @@
+package hashpizza.game.engine.platforming;
+
+/**
+ * Bitmasks for the categories of entities which can collide. Every entity belongs to a category and has a mask of the
+ * categories it collides with, and two entities only collide if each one's mask includes the other's category. This
+ * lets pairs which can never collide be rejected with a single AND, without calling handleCollision on either
+ */
+public final class CollisionLayers {
+
+    /**
+     * Belongs to or collides with nothing, e.g. particles
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Any entity not in one of the other categories
+     */
+    public static final int DEFAULT = 1;
+
+    public static final int BLOCK = 1 << 1;
+
+    public static final int PLAYER = 1 << 2;
+
+    public static final int ENEMY = 1 << 3;
+
+    public static final int ARROW = 1 << 4;
+
+    public static final int POTION = 1 << 5;
+
+    public static final int SPIT = 1 << 6;
+
+    /**
+     * Collides with every category
+     */
+    public static final int ALL = ~0;
+
+    private CollisionLayers() {
+    }
+}
@@ -1,5 +1,6 @@
 package hashpizza.game.engine.platforming;
 
+import hashpizza.game.engine.RenderLayer;
 import hashpizza.game.engine.util.AnimatedTexture;
 import hashpizza.game.engine.util.DeltaTimer;
 import hashpizza.game.engine.util.Textures;
@@ -54,4 +55,9 @@ public class Dash extends GameEntity {
 
         super.update(delta);
     }
-}
\ No newline at end of file
+
+    @Override
+    public RenderLayer getLayer() {
+        return RenderLayer.EFFECTS;
+    }
+}
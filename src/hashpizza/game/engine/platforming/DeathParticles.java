@@ -1,5 +1,6 @@
 package hashpizza.game.engine.platforming;
 
+import hashpizza.game.engine.RenderLayer;
 import hashpizza.game.engine.util.AnimatedTexture;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.Color;
@@ -41,6 +42,8 @@ public class DeathParticles extends GameEntity {
         setPhysics(false);
         setIgnoresCollisions(true);
         setHitbox(null);
+        setCollisionCategory(CollisionLayers.NONE);
+        setCollisionMask(CollisionLayers.NONE);
     }
 
     /**
@@ -61,7 +64,7 @@ public class DeathParticles extends GameEntity {
     }
 
     @Override
-    public boolean handleCollision(GameEntity collidesWith) {
-        return false; //we don't collide with anything
+    public RenderLayer getLayer() {
+        return RenderLayer.EFFECTS;
     }
 }
@@ -3,6 +3,8 @@ package hashpizza.game.engine.platforming;
 import hashpizza.game.engine.GameObject;
 import hashpizza.game.engine.GameScreen;
 import hashpizza.game.engine.GameSprite;
+import hashpizza.game.engine.GameText;
+import hashpizza.game.engine.RenderLayer;
 import hashpizza.game.engine.platforming.abilities.Abilities;
 import hashpizza.game.engine.saving.GameSaveState;
 import hashpizza.game.engine.util.*;
@@ -18,22 +20,22 @@ public class DemoOverlay implements GameObject {
     /**
      * Background gradient
      */
-    private Sprite background;
+    private GameSprite background;
 
     /**
      * The title of the level
      */
-    private Text levelTitle;
+    private GameText levelTitle;
 
     /**
      * The subtitle (either completed time or "Not completed")
      */
-    private Text levelSubtitle;
+    private GameText levelSubtitle;
 
     /**
      * Sprite for the level ability icon
      */
-    private Sprite levelIcon;
+    private GameSprite levelIcon;
 
     /**
      * Animations
@@ -46,9 +48,9 @@ public class DemoOverlay implements GameObject {
      * Creates a demo overlay for the specified level
      */
     public DemoOverlay(LevelSchema schema) {
-        background = new Sprite(TEXTURE_DEMO_OVERLAY);
+        background = new GameSprite(null, TEXTURE_DEMO_OVERLAY);
 
-        levelTitle = new Text(schema.meta.title, Fonts.MEDIEVAL);
+        levelTitle = new GameText(schema.meta.title, Fonts.MEDIEVAL);
         levelTitle.setCharacterSize(48);
         levelTitle.setPosition(120, GridUtils.SCREEN_HEIGHT - 145);
 
@@ -63,12 +65,12 @@ public class DemoOverlay implements GameObject {
             completeMessage = String.format("Best time: %d:%02d", mins, secs);
         }
 
-        levelSubtitle = new Text(completeMessage, Fonts.PIXEL);
+        levelSubtitle = new GameText(completeMessage, Fonts.PIXEL);
         levelSubtitle.setCharacterSize(32);
         levelSubtitle.setColor(new Color(200, 200, 200));
         levelSubtitle.setPosition(120, GridUtils.SCREEN_HEIGHT - 90);
 
-        levelIcon = new Sprite(Textures.getTexture("./res/misc/ability_icons/" + schema.meta.filename + "_icon.png"));
+        levelIcon = new GameSprite(null, Textures.getTexture("./res/misc/ability_icons/" + schema.meta.filename + "_icon.png"));
         levelIcon.setPosition(40, GridUtils.SCREEN_HEIGHT - 125);
         levelIcon.setScale(2f, 2f);
     }
@@ -94,4 +96,9 @@ public class DemoOverlay implements GameObject {
         levelTitle.draw(renderTarget, renderStates);
         levelSubtitle.draw(renderTarget, renderStates);
     }
+
+    @Override
+    public RenderLayer getLayer() {
+        return RenderLayer.OVERLAY;
+    }
 }
@@ -1,6 +1,6 @@
 package hashpizza.game.engine.platforming;
 
-import hashpizza.game.engine.util.DeltaTimer;
+import hashpizza.game.engine.util.TimerWheel;
 import org.jsfml.graphics.ConstTexture;
 import org.jsfml.system.Vector2f;
 
@@ -13,7 +13,7 @@ public class Enemy extends GameEntity {
     /**
      * How long this eenemy should be stunned for
      */
-    private DeltaTimer stunTimer;
+    private TimerWheel.Timer stunTimer;
 
     /**
      * Creates an enemy to be displayed on the screen
@@ -25,32 +25,25 @@ public class Enemy extends GameEntity {
      */
     public Enemy(LevelScreen screen, Vector2f position, boolean facingLeft, ConstTexture texture) {
         super(screen, position, facingLeft, texture);
-    }
 
-    @Override
-    public void update(float delta) {
-        if (stunTimer != null) {
-            boolean complete = stunTimer.update(delta);
-            if (complete) stunTimer = null;
-        }
-
-        super.update(delta);
+        setCollisionCategory(CollisionLayers.ENEMY);
     }
 
     /**
-     * Sets the duration that this enemy that should be stunned for, or null if this enemy should no longer be
-     * stunned
+     * Stuns this enemy for the specified duration of enemy game time, replacing any existing stun
      *
-     * @param stunTimer how long to stun this enemy for
+     * @param duration how long to stun this enemy for, in seconds
      */
-    public void setStunTimer(DeltaTimer stunTimer) {
-        this.stunTimer = stunTimer;
+    public void stun(float duration) {
+        if (stunTimer != null) stunTimer.cancel();
+
+        stunTimer = ((LevelScreen) getScreen()).getEnemyTimers().schedule(duration, null);
     }
 
     /**
      * @return the stun timer, for how long until this enemy stops being stunned, or null if it is not stunned
      */
-    public DeltaTimer getStunTimer() {
+    public TimerWheel.Timer getStunTimer() {
         return stunTimer;
     }
 
@@ -58,7 +51,7 @@ public class Enemy extends GameEntity {
      * @return whether this enemy is currently stunned (by the lonsdale ability)
      */
     public boolean isStunned() {
-        return stunTimer != null && !stunTimer.isComplete();
+        return stunTimer != null && !stunTimer.isComplete() && !stunTimer.isCancelled();
     }
 
     @Override
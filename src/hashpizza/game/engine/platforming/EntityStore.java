@@ -0,0 +1,322 @@
+package hashpizza.game.engine.platforming;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stores the physics state of entities as parallel arrays of floats (structure of arrays), so that passes over every
+ * entity read memory in order rather than chasing a pointer per entity. Each entity owns one slot, and the slots are
+ * kept packed at the start of the arrays: releasing a slot moves the last entity into its place
+ */
+public class EntityStore {
+
+    /**
+     * The position of each entity, i.e. the top left of its sprite
+     */
+    float[] positionX, positionY;
+
+    /**
+     * The position of each entity at the start of the last update, used to interpolate where it is drawn
+     */
+    float[] previousX, previousY;
+
+    /**
+     * The velocity of each entity, i.e. how much to move it per time unit
+     */
+    float[] velocityX, velocityY;
+
+    /**
+     * The acceleration of each entity
+     */
+    float[] accelerationX, accelerationY;
+
+    /**
+     * The offset of each entity's hitbox from its position
+     */
+    float[] hitboxLeft, hitboxTop;
+
+    /**
+     * The size of each entity's hitbox
+     */
+    float[] hitboxWidth, hitboxHeight;
+
+    /**
+     * Each entity's candidate moves against the terrain, worked out ahead of its update by
+     * {@link #prepareMoves(ForkJoinPool, TileGrid, MovePreparer)}: the position each sweep was from, how far it was trying to
+     * move and how far it could move
+     */
+    float[] candidateFromX, candidateFromY, candidateStepX, candidateStepY, candidateAllowedX, candidateAllowedY;
+
+    /**
+     * The pass each entity's candidate moves were worked out in. Candidates from any other pass are out of date
+     */
+    int[] candidatePass;
+
+    /**
+     * The current pass of candidate moves
+     */
+    int pass = 0;
+
+    /**
+     * The terrain the current pass of candidate moves was worked out against
+     */
+    TileGrid candidateTerrain;
+
+    /**
+     * How many slots each fork-join task prepares before it stops splitting
+     */
+    private static final int SLOTS_PER_TASK = 64;
+
+    /**
+     * The entity which owns each slot
+     */
+    private GameEntity[] owners;
+
+    /**
+     * The number of slots in use
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty store
+     *
+     * @param capacity the number of entities to make room for up front
+     */
+    public EntityStore(int capacity) {
+        capacity = Math.max(1, capacity);
+
+        positionX = new float[capacity];
+        positionY = new float[capacity];
+        previousX = new float[capacity];
+        previousY = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        accelerationX = new float[capacity];
+        accelerationY = new float[capacity];
+        hitboxLeft = new float[capacity];
+        hitboxTop = new float[capacity];
+        hitboxWidth = new float[capacity];
+        hitboxHeight = new float[capacity];
+        candidateFromX = new float[capacity];
+        candidateFromY = new float[capacity];
+        candidateStepX = new float[capacity];
+        candidateStepY = new float[capacity];
+        candidateAllowedX = new float[capacity];
+        candidateAllowedY = new float[capacity];
+        candidatePass = new int[capacity];
+        owners = new GameEntity[capacity];
+    }
+
+    /**
+     * @return the number of entities in this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Moves an entity's state into this store, from the store it is currently in or from its detached fields if it
+     * isn't in one, updating the entity's slot
+     *
+     * @param entity the entity to move
+     */
+    void adopt(GameEntity entity) {
+        EntityStore from = entity.store;
+        int oldSlot = entity.slot;
+
+        if (from == this) return;
+
+        if (size == owners.length) grow();
+
+        int slot = size++;
+
+        if (from == null) {
+            positionX[slot] = previousX[slot] = entity.detachedX;
+            positionY[slot] = previousY[slot] = entity.detachedY;
+            velocityX[slot] = entity.detachedVelocityX;
+            velocityY[slot] = entity.detachedVelocityY;
+            accelerationX[slot] = entity.detachedAccelerationX;
+            accelerationY[slot] = entity.detachedAccelerationY;
+            hitboxLeft[slot] = entity.detachedHitboxLeft;
+            hitboxTop[slot] = entity.detachedHitboxTop;
+            hitboxWidth[slot] = entity.detachedHitboxWidth;
+            hitboxHeight[slot] = entity.detachedHitboxHeight;
+        } else {
+            positionX[slot] = from.positionX[oldSlot];
+            positionY[slot] = from.positionY[oldSlot];
+            previousX[slot] = from.previousX[oldSlot];
+            previousY[slot] = from.previousY[oldSlot];
+            velocityX[slot] = from.velocityX[oldSlot];
+            velocityY[slot] = from.velocityY[oldSlot];
+            accelerationX[slot] = from.accelerationX[oldSlot];
+            accelerationY[slot] = from.accelerationY[oldSlot];
+            hitboxLeft[slot] = from.hitboxLeft[oldSlot];
+            hitboxTop[slot] = from.hitboxTop[oldSlot];
+            hitboxWidth[slot] = from.hitboxWidth[oldSlot];
+            hitboxHeight[slot] = from.hitboxHeight[oldSlot];
+
+            from.release(oldSlot);
+        }
+
+        candidatePass[slot] = -1; //passes are only counted within a store
+        owners[slot] = entity;
+
+        entity.store = this;
+        entity.slot = slot;
+    }
+
+    /**
+     * Moves an entity's state out of this store into its detached fields, e.g. when it is removed from its level
+     * screen, so that it keeps its state without holding on to a slot
+     *
+     * @param entity the entity to move, which must be in this store
+     */
+    void detach(GameEntity entity) {
+        if (entity.store != this) return;
+
+        int slot = entity.slot;
+
+        entity.detachedX = positionX[slot];
+        entity.detachedY = positionY[slot];
+        entity.detachedVelocityX = velocityX[slot];
+        entity.detachedVelocityY = velocityY[slot];
+        entity.detachedAccelerationX = accelerationX[slot];
+        entity.detachedAccelerationY = accelerationY[slot];
+        entity.detachedHitboxLeft = hitboxLeft[slot];
+        entity.detachedHitboxTop = hitboxTop[slot];
+        entity.detachedHitboxWidth = hitboxWidth[slot];
+        entity.detachedHitboxHeight = hitboxHeight[slot];
+
+        release(slot);
+
+        entity.store = null;
+        entity.slot = -1;
+    }
+
+    /**
+     * Frees a slot, moving the last entity into its place so the slots stay packed
+     *
+     * @param slot the slot to free
+     */
+    private void release(int slot) {
+        int last = --size;
+
+        if (slot != last) {
+            positionX[slot] = positionX[last];
+            positionY[slot] = positionY[last];
+            previousX[slot] = previousX[last];
+            previousY[slot] = previousY[last];
+            velocityX[slot] = velocityX[last];
+            velocityY[slot] = velocityY[last];
+            accelerationX[slot] = accelerationX[last];
+            accelerationY[slot] = accelerationY[last];
+            hitboxLeft[slot] = hitboxLeft[last];
+            hitboxTop[slot] = hitboxTop[last];
+            hitboxWidth[slot] = hitboxWidth[last];
+            hitboxHeight[slot] = hitboxHeight[last];
+            candidateFromX[slot] = candidateFromX[last];
+            candidateFromY[slot] = candidateFromY[last];
+            candidateStepX[slot] = candidateStepX[last];
+            candidateStepY[slot] = candidateStepY[last];
+            candidateAllowedX[slot] = candidateAllowedX[last];
+            candidateAllowedY[slot] = candidateAllowedY[last];
+            candidatePass[slot] = candidatePass[last];
+            owners[slot] = owners[last];
+            owners[slot].slot = slot;
+        }
+
+        owners[last] = null; //don't keep removed entities alive
+    }
+
+    /**
+     * Records every entity's current position as its previous position, before they are moved by the next update
+     */
+    public void storePreviousPositions() {
+        System.arraycopy(positionX, 0, previousX, 0, size);
+        System.arraycopy(positionY, 0, previousY, 0, size);
+    }
+
+    /**
+     * Works out every entity's candidate moves for the coming update in parallel. Each entity only writes to its own
+     * slot, and its update only uses the candidates if they were worked out from exactly the position and velocity it
+     * ends up with, so the results are the same as if the moves had been worked out during the update
+     *
+     * @param pool     the pool to run the work on
+     * @param terrain  the terrain to work out the moves against
+     * @param preparer works out the candidate moves for one entity
+     */
+    public void prepareMoves(ForkJoinPool pool, TileGrid terrain, MovePreparer preparer) {
+        pass++;
+        candidateTerrain = terrain;
+
+        pool.invoke(new PrepareMovesTask(preparer, 0, size));
+    }
+
+    /**
+     * Works out the candidate moves for one entity, called from the fork-join pool's threads
+     */
+    public interface MovePreparer {
+
+        /**
+         * @param entity the entity to work out the candidate moves for, which must only write to its own slot
+         */
+        void prepare(GameEntity entity);
+    }
+
+    /**
+     * Splits a range of slots in half until it is small enough, then prepares each slot in turn
+     */
+    private class PrepareMovesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final MovePreparer preparer;
+        private final int start, end;
+
+        private PrepareMovesTask(MovePreparer preparer, int start, int end) {
+            this.preparer = preparer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= SLOTS_PER_TASK) {
+                for (int i = start; i < end; i++) preparer.prepare(owners[i]);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new PrepareMovesTask(preparer, start, middle), new PrepareMovesTask(preparer, middle, end));
+        }
+    }
+
+    /**
+     * Doubles the capacity of the store
+     */
+    private void grow() {
+        int capacity = owners.length * 2;
+
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        accelerationX = Arrays.copyOf(accelerationX, capacity);
+        accelerationY = Arrays.copyOf(accelerationY, capacity);
+        hitboxLeft = Arrays.copyOf(hitboxLeft, capacity);
+        hitboxTop = Arrays.copyOf(hitboxTop, capacity);
+        hitboxWidth = Arrays.copyOf(hitboxWidth, capacity);
+        hitboxHeight = Arrays.copyOf(hitboxHeight, capacity);
+        candidateFromX = Arrays.copyOf(candidateFromX, capacity);
+        candidateFromY = Arrays.copyOf(candidateFromY, capacity);
+        candidateStepX = Arrays.copyOf(candidateStepX, capacity);
+        candidateStepY = Arrays.copyOf(candidateStepY, capacity);
+        candidateAllowedX = Arrays.copyOf(candidateAllowedX, capacity);
+        candidateAllowedY = Arrays.copyOf(candidateAllowedY, capacity);
+        candidatePass = Arrays.copyOf(candidatePass, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+    }
+}
@@ -3,10 +3,14 @@
  */
 package hashpizza.game.engine.platforming;
 
+import hashpizza.game.engine.FrameSnapshot;
 import hashpizza.game.engine.GameSprite;
+import hashpizza.game.engine.SpriteBatch;
+import hashpizza.game.engine.util.SpatialGrid;
 import org.jsfml.graphics.*;
 import org.jsfml.system.Vector2f;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,26 +35,41 @@ public class GameEntity extends GameSprite {
     private static final float TERMINAL_VELOCITY_Y = 100;
 
     /**
-     * The collision hitbox of this entity
+     * The store holding this entity's position, velocity and hitbox while it is on a level screen, or null while it
+     * isn't, in which case they are kept in the detached fields below
      */
-    private FloatRect hitbox;
+    EntityStore store;
 
     /**
-     * The collision hitbox of this entity with bounds in relation to the entire screen applied, i.e. it has an exact
-     * size as well as offset to represent it within the screen rather than just the size. Calculated from the hitbox
-     * variable when it is updated
+     * This entity's slot within its store. Changes when other entities are removed from the store
      */
-    private FloatRect globalHitbox;
+    int slot = -1;
 
     /**
-     * The velocity of this entity, i.e. how much to move it per time unit (update with delta time)
+     * This entity's position, velocity and acceleration while it isn't in a store, i.e. before it is added to a level
+     * screen and after it is removed from one
      */
-    Vector2f velocity;
+    float detachedX, detachedY, detachedVelocityX, detachedVelocityY, detachedAccelerationX, detachedAccelerationY;
 
     /**
-     * The acceleration of this entity, i.e. how fact our velocity is increasing/decreasing
+     * This entity's hitbox offset and size while it isn't in a store
      */
-    Vector2f acceleration;
+    float detachedHitboxLeft, detachedHitboxTop, detachedHitboxWidth, detachedHitboxHeight;
+
+    /**
+     * Whether this entity has a hitbox. Entities without one don't collide with anything
+     */
+    private boolean hasHitbox = true;
+
+    /**
+     * Half the size of the sprite, used to convert between this entity's position and the sprite's centred position
+     */
+    private float halfWidth, halfHeight;
+
+    /**
+     * Whether the sprite should be drawn mirrored, updated from facingLeft whenever this entity is updated
+     */
+    private boolean mirrored = false;
 
     /**
      * The amount of health this entity has remaining
@@ -69,9 +88,40 @@ public class GameEntity extends GameSprite {
     private boolean facingLeft;
 
     /**
-     * Whether this entity responds to collisions and gravity (if also enabled)
+     * The collision category this entity belongs to, from {@link CollisionLayers}
+     */
+    private int collisionCategory = CollisionLayers.DEFAULT;
+
+    /**
+     * The collision categories this entity collides with, from {@link CollisionLayers}
+     */
+    private int collisionMask = CollisionLayers.ALL;
+
+    /**
+     * How this entity takes part in physics. Static entities respond to neither collisions nor gravity
+     */
+    private BodyState bodyState = BodyState.DYNAMIC;
+
+    /**
+     * How slow an entity has to be moving to count as being at rest
+     */
+    private static final float SLEEP_VELOCITY = 0.01f;
+
+    /**
+     * How long an entity has to be at rest before it is put to sleep
+     */
+    private static final float SLEEP_DELAY = 0.5f;
+
+    /**
+     * How far around a kinematic entity to look for sleeping entities to wake, so that anything resting on top of it
+     * is woken when it moves
      */
-    private boolean hasPhysics = true;
+    private static final float WAKE_MARGIN = 1;
+
+    /**
+     * How long this entity has been at rest for
+     */
+    private float restTime = 0;
 
     /**
      * Whether this entity responds to gravity
@@ -83,6 +133,49 @@ public class GameEntity extends GameSprite {
      */
     private boolean ignoresCollisions = false;
 
+    /**
+     * The maximum distance an entity can move in one tick and still be interpolated when drawn. Anything further is
+     * treated as a teleport (e.g. respawning or changing screen) and drawn at its new position straight away
+     */
+    private static final float MAX_INTERPOLATION_DISTANCE = 60;
+
+    /**
+     * This entity's hitbox in its level screen's collision grid, or null if it isn't on the screen
+     */
+    private SpatialGrid.Node<GameEntity> gridNode;
+
+    /**
+     * Re-used list of the entities found by a collision grid query
+     */
+    private final List<GameEntity> collisionCandidates = new ArrayList<>();
+
+    /**
+     * The most sub-steps a single sweep is split into when checking for collisions with other entities
+     */
+    private static final int MAX_SUBSTEPS = 16;
+
+    /**
+     * Whether the last sweep was stopped by a collision
+     */
+    private boolean sweepBlocked;
+
+    /**
+     * The entity which stopped the last sweep, or null if it wasn't stopped by an entity
+     */
+    private GameEntity sweepCollider;
+
+    /**
+     * What this entity ran into during its last physics update, recorded once so that gameplay code can check them
+     * as often as it likes without re-running collision queries
+     */
+    private boolean onGround, touchingLeftWall, touchingRightWall, touchingCeiling;
+
+    /**
+     * The entities this entity ran into during its last physics update, or null if it didn't run into an entity
+     * (including when it ran into the terrain)
+     */
+    private GameEntity groundContact, wallContact, ceilingContact;
+
     /**
      * Creates a new game entity to be displayed in the specified game screen. By default, it will respond to physics
      *
@@ -95,27 +188,127 @@ public class GameEntity extends GameSprite {
         super(screen, texture);
 
         this.facingLeft = facingLeft;
-        this.hitbox = new FloatRect(0, 0, getLocalBounds().width, getLocalBounds().height); //originally set to the full width and height of this entity
+
+        FloatRect bounds = getLocalBounds();
+        halfWidth = bounds.width * 0.5f;
+        halfHeight = bounds.height * 0.5f;
+
+        setHitbox(new FloatRect(0, 0, bounds.width, bounds.height)); //originally set to the full width and height of this entity
 
         setPosition(position);
-        setOrigin(getLocalBounds().width * 0.5f, getLocalBounds().height * 0.5f);
+        setOrigin(halfWidth, halfHeight);
+        storePreviousPosition();
+    }
 
-        recalculateHitbox();
+    /**
+     * Moves this entity to the specified position, keeping its hitbox up to date
+     *
+     * @param x the new x position
+     * @param y the new y position
+     */
+    private void moveTo(float x, float y) {
+        if (store == null) {
+            detachedX = x;
+            detachedY = y;
+        } else {
+            store.positionX[slot] = x;
+            store.positionY[slot] = y;
+        }
 
-        this.velocity = Vector2f.ZERO;
-        this.acceleration = Vector2f.ZERO;
+        updateCollisionGrid();
     }
 
     /**
-     * Re-calculates the global-bounds hitbox to take into perspective this entity's position within the entire level
+     * Moves this entity's hitbox within its level screen's collision grid, if it is on the screen
      */
-    private void recalculateHitbox() {
-        if (hitbox == null) {
-            globalHitbox = null;
-            return;
+    private void updateCollisionGrid() {
+        if (gridNode == null) return;
+
+        SpatialGrid<GameEntity> grid = ((LevelScreen) getScreen()).getCollisionGrid();
+
+        if (!hasHitbox) { //nothing can collide with it, so just keep it where it is with no size
+            grid.move(gridNode, getX(), getY(), getX(), getY());
+        } else {
+            grid.move(gridNode, getHitboxLeft(), getHitboxTop(), getHitboxRight(), getHitboxBottom());
         }
+    }
+
+    /**
+     * Adds this entity to a collision grid. Called by the level screen when the entity is added to it
+     *
+     * @param grid the level screen's collision grid
+     */
+    void addToCollisionGrid(SpatialGrid<GameEntity> grid) {
+        if (gridNode != null) return;
 
-        globalHitbox = new FloatRect(getPosition().x + hitbox.left, getPosition().y + hitbox.top, hitbox.width, hitbox.top + hitbox.height);
+        gridNode = grid.insert(this, getX(), getY(), getX(), getY());
+        updateCollisionGrid();
+        updateCollisionLayers();
+    }
+
+    /**
+     * Puts this entity's grid node in its collision category, so that queries for other categories skip it. Entities
+     * without a hitbox aren't in any category, since nothing can collide with them
+     */
+    private void updateCollisionLayers() {
+        if (gridNode == null) return;
+
+        ((LevelScreen) getScreen()).getCollisionGrid().setLayers(gridNode, hasHitbox ? collisionCategory : CollisionLayers.NONE);
+    }
+
+    /**
+     * @return the collision category this entity belongs to
+     */
+    public int getCollisionCategory() {
+        return collisionCategory;
+    }
+
+    /**
+     * Sets the collision category this entity belongs to
+     *
+     * @param collisionCategory one of the categories from {@link CollisionLayers}
+     */
+    public void setCollisionCategory(int collisionCategory) {
+        this.collisionCategory = collisionCategory;
+        updateCollisionLayers();
+    }
+
+    /**
+     * @return the collision categories this entity collides with
+     */
+    public int getCollisionMask() {
+        return collisionMask;
+    }
+
+    /**
+     * Sets the collision categories this entity collides with
+     *
+     * @param collisionMask the categories from {@link CollisionLayers}, combined with OR
+     */
+    public void setCollisionMask(int collisionMask) {
+        this.collisionMask = collisionMask;
+    }
+
+    /**
+     * Checks whether this entity and another entity are in each other's collision masks
+     *
+     * @param entity the other entity
+     * @return true if the two entities can collide
+     */
+    public boolean canCollideWith(GameEntity entity) {
+        return (collisionMask & entity.collisionCategory) != 0 && (entity.collisionMask & collisionCategory) != 0;
+    }
+
+    /**
+     * Removes this entity from a collision grid. Called by the level screen when the entity is removed from it
+     *
+     * @param grid the level screen's collision grid
+     */
+    void removeFromCollisionGrid(SpatialGrid<GameEntity> grid) {
+        if (gridNode == null) return;
+
+        grid.remove(gridNode);
+        gridNode = null;
     }
 
     /**
@@ -124,88 +317,352 @@ public class GameEntity extends GameSprite {
      * @param hitbox the new hitbox for this entity
      */
     public void setHitbox(FloatRect hitbox) {
+        hasHitbox = hitbox != null;
+
+        if (store == null) {
+            if (hasHitbox) {
+                detachedHitboxLeft = hitbox.left;
+                detachedHitboxTop = hitbox.top;
+                detachedHitboxWidth = hitbox.width;
+                detachedHitboxHeight = hitbox.top + hitbox.height;
+            }
+        } else {
+            if (hasHitbox) {
+                store.hitboxLeft[slot] = hitbox.left;
+                store.hitboxTop[slot] = hitbox.top;
+                store.hitboxWidth[slot] = hitbox.width;
+                store.hitboxHeight[slot] = hitbox.top + hitbox.height;
+            }
+
+            store.candidatePass[slot] = -1; //any candidate moves were for the old hitbox
+        }
 
-        this.hitbox = hitbox;
-        recalculateHitbox();
+        updateCollisionGrid();
+        updateCollisionLayers();
     }
 
     /**
      * @return this entity's hitbox, expanded by 0.2 on all sides
      */
     public FloatRect getExpandedHitbox() {
-        return new FloatRect(globalHitbox.left - 0.2f, globalHitbox.top - 0.2f, globalHitbox.width + 0.2f, globalHitbox.height + 0.2f);
+        return new FloatRect(getHitboxLeft() - 0.2f, getHitboxTop() - 0.2f, getHitboxWidth() + 0.2f, getHitboxHeight() + 0.2f);
     }
 
     /**
-     * @return this entity's hitbox in the scope of the entire screen
+     * @return this entity's hitbox in the scope of the entire screen, or null if it doesn't have one
      */
     public FloatRect getGlobalHitbox() {
-        return globalHitbox;
+        return hasHitbox ? new FloatRect(getHitboxLeft(), getHitboxTop(), getHitboxWidth(), getHitboxHeight()) : null;
+    }
+
+    /**
+     * @return the width of this entity's hitbox
+     */
+    private float getHitboxWidth() {
+        return store == null ? detachedHitboxWidth : store.hitboxWidth[slot];
+    }
+
+    /**
+     * @return the height of this entity's hitbox
+     */
+    private float getHitboxHeight() {
+        return store == null ? detachedHitboxHeight : store.hitboxHeight[slot];
+    }
+
+    /**
+     * @return whether this entity has a hitbox
+     */
+    public boolean hasHitbox() {
+        return hasHitbox;
+    }
+
+    /**
+     * @return the left edge of this entity's hitbox in the scope of the entire screen
+     */
+    public float getHitboxLeft() {
+        return getX() + (store == null ? detachedHitboxLeft : store.hitboxLeft[slot]);
+    }
+
+    /**
+     * @return the top edge of this entity's hitbox in the scope of the entire screen
+     */
+    public float getHitboxTop() {
+        return getY() + (store == null ? detachedHitboxTop : store.hitboxTop[slot]);
+    }
+
+    /**
+     * @return the right edge of this entity's hitbox in the scope of the entire screen
+     */
+    public float getHitboxRight() {
+        return getHitboxLeft() + getHitboxWidth();
+    }
+
+    /**
+     * @return the bottom edge of this entity's hitbox in the scope of the entire screen
+     */
+    public float getHitboxBottom() {
+        return getHitboxTop() + getHitboxHeight();
     }
 
     @Override
     public void setPosition(Vector2f position) {
-        super.setPosition(new Vector2f(position.x + getLocalBounds().width * 0.5f, position.y + getLocalBounds().height * 0.5f));
-
-        recalculateHitbox();
+        moveTo(position.x, position.y);
+        clearContacts();
+        wake(); //e.g. respawning, it may no longer be resting on anything
     }
 
     @Override
     public Vector2f getPosition() {
-        Vector2f position = super.getPosition();
-        return new Vector2f(position.x - getLocalBounds().width * 0.5f, position.y - getLocalBounds().height * 0.5f);
+        return new Vector2f(getX(), getY());
+    }
+
+    /**
+     * @return the x position of this entity, without allocating a vector
+     */
+    public float getX() {
+        return store == null ? detachedX : store.positionX[slot];
+    }
+
+    /**
+     * @return the y position of this entity, without allocating a vector
+     */
+    public float getY() {
+        return store == null ? detachedY : store.positionY[slot];
+    }
+
+    /**
+     * @return the x velocity of this entity
+     */
+    public float getVelocityX() {
+        return store == null ? detachedVelocityX : store.velocityX[slot];
+    }
+
+    /**
+     * @return the y velocity of this entity
+     */
+    public float getVelocityY() {
+        return store == null ? detachedVelocityY : store.velocityY[slot];
+    }
+
+    /**
+     * Sets the velocity of this entity, i.e. how much to move it per time unit
+     *
+     * @param x the new x velocity
+     * @param y the new y velocity
+     */
+    public void setVelocity(float x, float y) {
+        setVelocityX(x);
+        setVelocityY(y);
+    }
+
+    /**
+     * @param x the new x velocity of this entity
+     */
+    public void setVelocityX(float x) {
+        if (store == null) detachedVelocityX = x;
+        else store.velocityX[slot] = x;
+    }
+
+    /**
+     * @param y the new y velocity of this entity
+     */
+    public void setVelocityY(float y) {
+        if (store == null) detachedVelocityY = y;
+        else store.velocityY[slot] = y;
+    }
+
+    /**
+     * Records this entity's current position as its previous position, before it is moved by the next update. Does
+     * nothing while this entity isn't in a store, since it is drawn at its position when it is added to one
+     */
+    public void storePreviousPosition() {
+        if (store == null) return;
+
+        store.previousX[slot] = store.positionX[slot];
+        store.previousY[slot] = store.positionY[slot];
+    }
+
+    /**
+     * Copies this entity's position and facing onto its sprite, ready to be drawn
+     *
+     * @param x the x position to draw the entity at
+     * @param y the y position to draw the entity at
+     */
+    private void syncSprite(float x, float y) {
+        super.setPosition(new Vector2f(x + halfWidth, y + halfHeight));
+        setScale(mirrored ? -1 : 1, 1);
     }
 
     @Override
     public void update(float delta) {
+        stepPhysics(delta);
+    }
+
+    /**
+     * Runs this entity's physics for one update, without any of the behaviour subclasses add to {@link #update(float)}
+     *
+     * @param delta the game delta time
+     */
+    final void stepPhysics(float delta) {
+        if (bodyState == BodyState.STATIC) { //never moved by physics, so nothing else to do
+            mirrored = facingLeft;
+            return;
+        }
+
+        if (bodyState == BodyState.SLEEPING) {
+            //only wake up if something has given us a push
+            if (Math.abs(store.velocityX[slot]) < SLEEP_VELOCITY && Math.abs(store.velocityY[slot]) < SLEEP_VELOCITY) {
+                mirrored = facingLeft;
+                return;
+            }
+
+            wake();
+        }
+
         if (!((LevelScreen) getScreen()).isActive()) return;
 
         super.update(delta);
         if (health < 1)
             dead = true;
 
+        if (bodyState == BodyState.KINEMATIC) {
+            updateKinematic(delta);
+        } else {
+            updateDynamic(delta);
+        }
+
+        mirrored = facingLeft;
+    }
+
+    /**
+     * Moves this entity by its velocity, ignoring gravity and collisions, and wakes up any sleeping entities touching
+     * it before or after the move
+     *
+     * @param delta the game delta time
+     */
+    private void updateKinematic(float delta) {
+        float stepX = getStepX(delta);
+        float stepY = getStepY(delta);
+
+        if (stepX == 0 && stepY == 0) return;
+
+        float left = getHitboxLeft(), top = getHitboxTop();
+
+        moveTo(getX() + stepX, getY() + stepY);
+
+        if (!hasHitbox || gridNode == null) return;
+
+        List<GameEntity> candidates = collisionCandidates;
+        candidates.clear();
+
+        ((LevelScreen) getScreen()).getCollisionGrid().query(Math.min(left, getHitboxLeft()) - WAKE_MARGIN,
+                Math.min(top, getHitboxTop()) - WAKE_MARGIN, Math.max(left, getHitboxLeft()) + store.hitboxWidth[slot] + WAKE_MARGIN,
+                Math.max(top, getHitboxTop()) + store.hitboxHeight[slot] + WAKE_MARGIN, candidates);
+
+        for (int i = 0; i < candidates.size(); i++) {
+            candidates.get(i).wake();
+        }
+    }
+
+    /**
+     * Moves this entity by its velocity and gravity, stopping at anything it collides with. Puts this entity to sleep
+     * once it has been at rest on something that doesn't move for long enough
+     *
+     * @param delta the game delta time
+     */
+    private void updateDynamic(float delta) {
         //X and Y position calculations need to be performed separately so we know whether we should stop movement
         //in the X direction, or movement in the Y direction if a collision is identified
 
-        if (hasPhysics) {
-            if (usesGravity) velocity = Vector2f.add(velocity, new Vector2f(0, 7.5f * delta)); //apply gravity here
+        if (usesGravity) store.velocityY[slot] += 7.5f * delta; //apply gravity here
 
-            Vector2f nextPos = getPosition(); //by default, we don't move, so the next position is the same as the current one
+        float stepX = getStepX(delta);
+        float stepY = getStepY(delta);
 
-            if (!ignoresCollisions) {
+        clearContacts();
 
-                Vector2f nextPosX = calculateNextPosition(delta, true, false);
-                Vector2f nextPosY = calculateNextPosition(delta, false, true);
-
-                GameEntity ge = getCollisionAtPosition(nextPosX, ((LevelScreen) getScreen()).getEntities());
-                if (ge == null) { //if we can move in x direction...
-                    nextPos = new Vector2f(nextPosX.x, nextPos.y); //change the next x position to our new one
+        if (ignoresCollisions) {
+            moveTo(getX() + stepX, getY() + stepY);
+            return;
+        }
 
-                } else { //take the colliding's velocity
-                    velocity = new Vector2f(ge.velocity.x, velocity.y);
-                }
+        //sweep along each axis in turn, stopping at the first thing we would hit on the way
+        float x = getX() + sweep(getX(), getY(), stepX, true);
 
-                if (getCollisionAtPosition(nextPosY, ((LevelScreen) getScreen()).getEntities()) == null) { //if we can move in y direction...
-                    nextPos = new Vector2f(nextPos.x, nextPosY.y); //change the next y position to our new one
+        if (sweepBlocked) { //take the colliding's velocity, terrain doesn't move
+            store.velocityX[slot] = sweepCollider != null ? sweepCollider.getVelocityX() : 0;
 
-                } else {
-                    acceleration = new Vector2f(acceleration.x, 0);
-                    velocity = new Vector2f(velocity.x, 0);
-                }
-            } else {
-                nextPos = calculateNextPosition(delta, true, true);
+            if (stepX != 0) {
+                touchingLeftWall = stepX < 0;
+                touchingRightWall = stepX > 0;
+                wallContact = sweepCollider;
             }
+        }
+
+        float y = getY() + sweep(x, getY(), stepY, false);
 
-            setPosition(nextPos);
+        if (sweepBlocked && stepY > 0) {
+            onGround = true;
+            groundContact = sweepCollider;
+        } else if (sweepBlocked && stepY < 0) {
+            touchingCeiling = true;
+            ceilingContact = sweepCollider;
         }
 
-        if (facingLeft) {
-            setScale(-1, 1);
-        } else {
-            setScale(1, 1);
+        //only rest on the terrain or static entities, since anything else could move out from under us
+        boolean resting = sweepBlocked && stepY > 0 && Math.abs(store.velocityX[slot]) < SLEEP_VELOCITY
+                && (sweepCollider == null || sweepCollider.bodyState == BodyState.STATIC);
+
+        if (sweepBlocked) {
+            store.accelerationY[slot] = 0;
+            store.velocityY[slot] = 0;
+        }
+
+        moveTo(x, y);
+
+        if (!resting) {
+            restTime = 0;
+        } else if ((restTime += delta) >= SLEEP_DELAY) {
+            bodyState = BodyState.SLEEPING;
+            store.velocityX[slot] = 0;
         }
     }
 
+    /**
+     * Forgets everything this entity ran into during its last physics update
+     */
+    private void clearContacts() {
+        onGround = touchingLeftWall = touchingRightWall = touchingCeiling = false;
+        groundContact = wallContact = ceilingContact = null;
+    }
+
+    /**
+     * Wakes this entity up if it is sleeping, so that it is moved by physics again
+     */
+    public void wake() {
+        restTime = 0;
+        if (bodyState == BodyState.SLEEPING) bodyState = BodyState.DYNAMIC;
+    }
+
+    /**
+     * @return how this entity currently takes part in physics
+     */
+    public BodyState getBodyState() {
+        return bodyState;
+    }
+
+    /**
+     * Sets how this entity takes part in physics
+     *
+     * @param bodyState the new body state
+     */
+    public void setBodyState(BodyState bodyState) {
+        this.bodyState = bodyState;
+        restTime = 0;
+
+        if (bodyState == BodyState.STATIC || bodyState == BodyState.KINEMATIC) clearContacts();
+    }
+
     /**
      * Returns whether or not this entity is facing left
      *
@@ -230,7 +687,7 @@ public class GameEntity extends GameSprite {
      * @return true if this entity responds to physics
      */
     public boolean hasPhysics() {
-        return hasPhysics;
+        return bodyState != BodyState.STATIC;
     }
 
     /**
@@ -248,7 +705,7 @@ public class GameEntity extends GameSprite {
      * @param hasPhysics true if this entity responds to physics
      */
     public void setPhysics(boolean hasPhysics) {
-        this.hasPhysics = hasPhysics;
+        setBodyState(hasPhysics ? BodyState.DYNAMIC : BodyState.STATIC);
     }
 
     /**
@@ -258,6 +715,7 @@ public class GameEntity extends GameSprite {
      */
     public void setGravity(boolean hasGravity) {
         this.usesGravity = hasGravity;
+        wake();
     }
 
     public void dealDamage(int amount) {
@@ -306,32 +764,253 @@ public class GameEntity extends GameSprite {
     }
 
     /**
-     * Utility method to determine if the entity is on the ground. It does this by determining whether moving downwards
-     * would result in a collision with another entity (i.e. the ground)
+     * Utility method to determine if the entity is on the ground, i.e. whether gravity pulled it into the terrain or
+     * another entity during its last physics update. Sleeping entities stay on the ground
      *
      * @return whether the entity is on the ground
      */
     public boolean isOnGround() {
-        return getCollisionAtPosition(Vector2f.add(getPosition(), new Vector2f(0f, 0.2f)), ((LevelScreen) getScreen()).getEntities()) != null;
+        return onGround;
+    }
+
+    /**
+     * @return whether the entity ran into something above it during its last physics update
+     */
+    public boolean isTouchingCeiling() {
+        return touchingCeiling;
+    }
+
+    /**
+     * Returns whether the entity ran into a wall on one side while moving during its last physics update
+     *
+     * @param left true to check the left side, false for the right side
+     * @return whether the entity ran into a wall on that side
+     */
+    public boolean isTouchingWall(boolean left) {
+        return left ? touchingLeftWall : touchingRightWall;
+    }
+
+    /**
+     * @return the entity this entity is standing on, or null if it isn't standing on an entity
+     */
+    public GameEntity getGroundContact() {
+        return groundContact;
+    }
+
+    /**
+     * @return the entity this entity ran into while moving sideways, or null if it didn't run into an entity
+     */
+    public GameEntity getWallContact() {
+        return wallContact;
+    }
+
+    /**
+     * @return the entity this entity ran into above it, or null if it didn't run into an entity
+     */
+    public GameEntity getCeilingContact() {
+        return ceilingContact;
+    }
+
+    /**
+     * Works out how far this entity can move along one axis from the specified position before it collides with
+     * something. The time of impact with the terrain is found exactly, so the entity stops flush against it. Moves
+     * longer than half of the entity's size are split into sub-steps which are each checked for collisions with
+     * other entities, so fast moving entities can't pass through each other. Sets {@link #sweepBlocked} and
+     * {@link #sweepCollider} to what stopped the entity
+     *
+     * @param x          the x position to move from
+     * @param y          the y position to move from
+     * @param distance   how far to move
+     * @param horizontal true to move along the x axis, false for the y axis
+     * @return how far the entity can move
+     */
+    private float sweep(float x, float y, float distance, boolean horizontal) {
+        sweepBlocked = false;
+        sweepCollider = null;
+
+        if (!hasHitbox) return distance;
+
+        float allowed = distance;
+
+        TileGrid terrain = ((LevelScreen) getScreen()).getTileGrid();
+
+        if (terrain != null && distance != 0) {
+            float impact;
+
+            if (hasCandidate(terrain, x, y, distance, horizontal)) { //already worked out by the parallel pass
+                impact = horizontal ? store.candidateAllowedX[slot] : store.candidateAllowedY[slot];
+            } else {
+                impact = sweepTerrain(terrain, x, y, distance, horizontal);
+            }
+
+            if (impact != distance && handleTileCollision()) {
+                allowed = impact;
+                sweepBlocked = true;
+            }
+        }
+
+        float maxStep = Math.max(1, Math.min(store.hitboxWidth[slot], store.hitboxHeight[slot]) * 0.5f);
+        int substeps = Math.max(1, Math.min(MAX_SUBSTEPS, (int) Math.ceil(Math.abs(allowed) / maxStep)));
+
+        for (int i = 1; i <= substeps; i++) {
+            float moved = allowed * i / substeps;
+
+            GameEntity ge = horizontal ? getCollisionAt(x + moved, y) : getCollisionAt(x, y + moved);
+            if (ge != null) { //stop at the last sub-step which was clear
+                sweepBlocked = true;
+                sweepCollider = ge;
+
+                return allowed * (i - 1) / substeps;
+            }
+        }
+
+        return allowed;
+    }
+
+    /**
+     * Works out how far this entity can move along one axis from the specified position before it hits the terrain
+     */
+    private float sweepTerrain(TileGrid terrain, float x, float y, float distance, boolean horizontal) {
+        float right = x + store.hitboxWidth[slot], bottom = y + store.hitboxHeight[slot];
+
+        return horizontal ? terrain.sweepX(x, y, right, bottom, distance) : terrain.sweepY(x, y, right, bottom, distance);
+    }
+
+    /**
+     * Returns whether the parallel pass worked out this entity's move against the terrain from exactly the same
+     * position and distance, so its result can be used as is
+     */
+    private boolean hasCandidate(TileGrid terrain, float x, float y, float distance, boolean horizontal) {
+        if (store.candidatePass[slot] != store.pass || store.candidateTerrain != terrain) return false;
+
+        if (horizontal) {
+            return store.candidateFromX[slot] == x && store.candidateFromY[slot] == y && store.candidateStepX[slot] == distance;
+        }
+
+        return store.candidateFromX[slot] + store.candidateAllowedX[slot] == x && store.candidateFromY[slot] == y
+                && store.candidateStepY[slot] == distance;
+    }
+
+    /**
+     * Works out this entity's moves against the terrain for the coming update, assuming its velocity won't be changed
+     * before then, and records them in its slot. Called for every entity at once from the fork-join pool, so only
+     * reads this entity's state and the terrain, and only writes to its own slot
+     *
+     * @param delta the game delta time this entity will be updated with
+     */
+    void prepareMove(float delta) {
+        if (bodyState != BodyState.DYNAMIC || ignoresCollisions || !hasHitbox) return;
+
+        TileGrid terrain = store.candidateTerrain;
+        if (terrain == null) return;
+
+        float x = store.positionX[slot], y = store.positionY[slot];
+        float velocityY = store.velocityY[slot] + (usesGravity ? 7.5f * delta : 0);
+
+        float stepX = getStepX(delta);
+        float stepY = clampStep(velocityY, TERMINAL_VELOCITY_Y, delta);
+
+        float allowedX = stepX != 0 ? sweepTerrain(terrain, x, y, stepX, true) : 0;
+        float allowedY = stepY != 0 ? sweepTerrain(terrain, x + allowedX, y, stepY, false) : 0;
+
+        store.candidateFromX[slot] = x;
+        store.candidateFromY[slot] = y;
+        store.candidateStepX[slot] = stepX;
+        store.candidateStepY[slot] = stepY;
+        store.candidateAllowedX[slot] = allowedX;
+        store.candidateAllowedY[slot] = allowedY;
+        store.candidatePass[slot] = store.pass;
+    }
+
+    /**
+     * Returns whether this entity will collide with the level's static terrain if at this position. Only the tiles
+     * overlapping the position are checked
+     *
+     * @param position the position to check if we can move to
+     * @return true if there would be a collision with the terrain
+     */
+    public boolean collidesWithTerrain(Vector2f position) {
+        return collidesWithTerrainAt(position.x, position.y);
+    }
+
+    /**
+     * Returns whether this entity will collide with the level's static terrain if at this position, without
+     * allocating a vector
+     *
+     * @param x the x position to check
+     * @param y the y position to check
+     * @return true if there would be a collision with the terrain
+     */
+    public boolean collidesWithTerrainAt(float x, float y) {
+        if (!hasHitbox) return false;
+
+        TileGrid terrain = ((LevelScreen) getScreen()).getTileGrid();
+
+        return terrain != null && terrain.overlapsSolid(x, y, x + store.hitboxWidth[slot], y + store.hitboxHeight[slot]) && handleTileCollision();
     }
 
     /**
      * Returns the game entity that this entity will collide with if at this position. Returns null if there will be
-     * no collision.
+     * no collision. Only checks the entities near the position, using the level screen's collision grid
+     *
+     * @param position the position to check if we can move to
+     * @return the game entity at this position if there would be a collision, otherwise null
+     */
+    public GameEntity getCollisionAtPosition(Vector2f position) {
+        return getCollisionAt(position.x, position.y);
+    }
+
+    /**
+     * Returns the game entity that this entity will collide with if at this position, without allocating a vector.
+     * Returns null if there will be no collision
+     *
+     * @param x the x position to check
+     * @param y the y position to check
+     * @return the game entity at this position if there would be a collision, otherwise null
+     */
+    public GameEntity getCollisionAt(float x, float y) {
+        if (!hasHitbox) return null;
+
+        List<GameEntity> candidates = collisionCandidates;
+        candidates.clear();
+
+        //the grid only returns entities in our mask whose hitboxes overlap this one, so no need to check them again
+        ((LevelScreen) getScreen()).getCollisionGrid().query(x, y, x + store.hitboxWidth[slot], y + store.hitboxHeight[slot], collisionMask, candidates);
+
+        for (int i = 0; i < candidates.size(); i++) {
+            GameEntity obj = candidates.get(i);
+
+            if (obj == this || (obj.collisionMask & collisionCategory) == 0 || getScreen().markedForRemoval(obj)) continue;
+
+            if (!handleCollision(obj)) continue;
+            if (!obj.handleCollision(this)) continue;
+
+            obj.wake(); //something has run into it
+            return obj; //collision!
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the game entity that this entity will collide with if at this position, checking every one of the
+     * specified entities. Returns null if there will be no collision.
      *
      * @param position the position to check if we can move to
      * @param objects  the objects within this level screen
      * @return the game entity at this position if there would be a collision, otherwise null
      */
     public GameEntity getCollisionAtPosition(Vector2f position, List<GameEntity> objects) {
-        if (globalHitbox == null) return null;
+        if (!hasHitbox) return null;
+
+        FloatRect hb = new FloatRect(position.x, position.y, getHitboxWidth(), getHitboxHeight()); //left, top, width, height
 
-        FloatRect hb = new FloatRect(position.x, position.y, globalHitbox.width, globalHitbox.height); //left, top, width, height
+        for (int i = 0; i < objects.size(); i++) {
+            GameEntity obj = objects.get(i);
 
-        for (GameEntity obj : objects) {
             if (getScreen().markedForRemoval(obj)) continue;
 
-            if (obj != this && collidesWith(hb, obj)) {
+            if (obj != this && canCollideWith(obj) && collidesWith(hb, obj)) {
                 if (!handleCollision(obj)) continue;
                 if (!obj.handleCollision(this)) continue; //todo testing
                 //System.out.println(this + " (" + globalHitbox + ") COLLIDES WITH " + obj + " (" + obj.globalHitbox + ")");
@@ -352,21 +1031,44 @@ public class GameEntity extends GameSprite {
      * @return a vector representing the new calculated position
      */
     public Vector2f calculateNextPosition(float delta, boolean applyXVel, boolean applyYVel) {
+        return new Vector2f(getX() + (applyXVel ? getStepX(delta) : 0), getY() + (applyYVel ? getStepY(delta) : 0));
+    }
 
-        float xVel = velocity.x;
-        float yVel = velocity.y;
+    /**
+     * Calculates how far this entity will move along the x axis if velocity is applied to it
+     *
+     * @param delta the game delta time to apply to the velocity
+     * @return the distance moved
+     */
+    public float getStepX(float delta) {
+        return clampStep(store.velocityX[slot], TERMINAL_VELOCITY_X, delta);
+    }
 
-        if (Math.abs(xVel) > TERMINAL_VELOCITY_X) {
-            xVel = xVel < 0 ? -TERMINAL_VELOCITY_X : TERMINAL_VELOCITY_X;
-        }
+    /**
+     * Calculates how far this entity will move along the y axis if velocity is applied to it
+     *
+     * @param delta the game delta time to apply to the velocity
+     * @return the distance moved
+     */
+    public float getStepY(float delta) {
+        return clampStep(store.velocityY[slot], TERMINAL_VELOCITY_Y, delta);
+    }
 
-        if (Math.abs(yVel) > TERMINAL_VELOCITY_Y) {
-            yVel = yVel < 0 ? -TERMINAL_VELOCITY_Y : TERMINAL_VELOCITY_Y;
+    /**
+     * Calculates how far a velocity moves an entity, capped at the terminal velocity
+     *
+     * @param velocity the velocity along one axis
+     * @param terminal the terminal velocity along that axis
+     * @param delta    the game delta time to apply to the velocity
+     * @return the distance moved
+     */
+    private static float clampStep(float velocity, float terminal, float delta) {
+        if (Math.abs(velocity) > terminal) {
+            velocity = velocity < 0 ? -terminal : terminal;
         }
 
-        //float orientation = getRotation() * 180f / (float) Math.PI;
         //delta is multiplied by 100 since it will normally be very low
-        return new Vector2f(getPosition().x + (applyXVel ? xVel * delta * 100 : 0), getPosition().y + (applyYVel ? yVel * delta * 100 : 0));
+        return velocity * delta * 100;
     }
 
     /**
@@ -377,11 +1079,15 @@ public class GameEntity extends GameSprite {
      * @return true if there is collision with the other entity
      */
     public boolean collidesWith(FloatRect hitbox, GameEntity entity) {
-        if (globalHitbox == null) return false;
+        if (!hasHitbox || !entity.hasHitbox) return false;
 
-        if (hitbox == null) hitbox = this.globalHitbox; //use our existing hitbox if no other one is supplied
+        if (hitbox == null) { //use our existing hitbox if no other one is supplied
+            return getHitboxLeft() < entity.getHitboxRight() && entity.getHitboxLeft() < getHitboxRight()
+                    && getHitboxTop() < entity.getHitboxBottom() && entity.getHitboxTop() < getHitboxBottom();
+        }
 
-        return entity.globalHitbox != null && hitbox.intersection(entity.globalHitbox) != null;
+        return hitbox.left < entity.getHitboxRight() && entity.getHitboxLeft() < hitbox.left + hitbox.width
+                && hitbox.top < entity.getHitboxBottom() && entity.getHitboxTop() < hitbox.top + hitbox.height;
     }
 
     public boolean isDead() {
@@ -389,21 +1095,56 @@ public class GameEntity extends GameSprite {
     }
 
     @Override
-    public void draw(RenderTarget renderTarget, RenderStates renderStates) {
-        super.draw(renderTarget, renderStates);
+    public void draw(RenderTarget renderTarget, RenderStates renderStates, SpriteBatch batch) {
+        float alpha = getScreen().getInterpolationAlpha();
+
+        float x = store.positionX[slot], y = store.positionY[slot];
+        float previousX = store.previousX[slot], previousY = store.previousY[slot];
+
+        if (alpha < 1 && Math.abs(x - previousX) < MAX_INTERPOLATION_DISTANCE && Math.abs(y - previousY) < MAX_INTERPOLATION_DISTANCE) {
+            //draw in between the previous and current tick positions
+            syncSprite(previousX + (x - previousX) * alpha, previousY + (y - previousY) * alpha);
+        } else {
+            syncSprite(x, y);
+        }
+
+        super.draw(renderTarget, renderStates, batch);
+
+        if (displayHitboxes && hasHitbox) {
+            if (batch != null) batch.flush(renderTarget); //draw the outline over the sprite
 
-        if (displayHitboxes && globalHitbox != null) {
             RectangleShape rs = new RectangleShape();
             rs.setOutlineColor(Color.RED);
             rs.setOutlineThickness(3f);
             rs.setFillColor(new Color(0, 0, 0, 0));
             rs.draw(renderTarget, renderStates);
-            rs.setSize(new Vector2f(globalHitbox.width, globalHitbox.height));
-            rs.setPosition(new Vector2f(globalHitbox.left, globalHitbox.top));
+            rs.setSize(new Vector2f(store.hitboxWidth[slot], store.hitboxHeight[slot]));
+            rs.setPosition(new Vector2f(getHitboxLeft(), getHitboxTop()));
             rs.draw(renderTarget, renderStates);
         }
     }
 
+    @Override
+    public FloatRect getDrawBounds() {
+        //the sprite is only moved when it is drawn, and is drawn somewhere between the previous and current positions
+        FloatRect bounds = getGlobalBounds();
+        Vector2f drawn = super.getPosition();
+
+        float x = store.positionX[slot] + halfWidth - drawn.x, y = store.positionY[slot] + halfHeight - drawn.y;
+        float previousX = store.previousX[slot] + halfWidth - drawn.x, previousY = store.previousY[slot] + halfHeight - drawn.y;
+
+        float left = bounds.left + Math.min(x, previousX), top = bounds.top + Math.min(y, previousY);
+        float right = bounds.left + bounds.width + Math.max(x, previousX), bottom = bounds.top + bounds.height + Math.max(y, previousY);
+
+        return new FloatRect(left, top, right - left, bottom - top);
+    }
+
+    @Override
+    public void snapshot(FrameSnapshot snapshot) {
+        syncSprite(getX(), getY());
+        super.snapshot(snapshot);
+    }
+
     /**
      * TODO this
      *
@@ -414,6 +1155,15 @@ public class GameEntity extends GameSprite {
         return true;
     }
 
+    /**
+     * Called when this entity collides with a solid tile of the terrain, for sub-classes to handle if needed
+     *
+     * @return true if collision should be counted
+     */
+    public boolean handleTileCollision() {
+        return true;
+    }
+
     public boolean isIgnoresCollisions() {
         return ignoresCollisions;
     }
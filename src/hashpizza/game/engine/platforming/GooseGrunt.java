@@ -30,13 +30,10 @@ public class GooseGrunt extends Enemy {
     public void update(float delta) {
         if (isStunned()) {
             setTexture(TEXTURE_STUNNED);
-            velocity = new Vector2f(0, velocity.y);
+            setVelocityX(0);
         } else {
-            setTexture((TEXTURE_IDLE_1));
-            velocity = new Vector2f(isFacingLeft() ? -0.5f : 0.5f, velocity.y);
-            if (getCollisionAtPosition(calculateNextPosition(delta, true, false),
-                    ((LevelScreen) getScreen()).getEntities()) instanceof Block || getCollisionAtPosition(calculateNextPosition(delta, true, false),
-                    ((LevelScreen) getScreen()).getEntities()) instanceof Spikes) {
+            setVelocityX(isFacingLeft() ? -0.5f : 0.5f);
+            if (isTouchingWall(isFacingLeft()) && (getWallContact() == null || getWallContact() instanceof Block)) {
                 setFacingLeft(!isFacingLeft()); //switch direction, mario goomba style
             }
 
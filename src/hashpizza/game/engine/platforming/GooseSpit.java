@@ -25,7 +25,9 @@ public class GooseSpit extends Enemy {
         super(screen, position, left, TEXTURE_SPIT);
 
         setGravity(false);
-        velocity = new Vector2f(left ? -4 : 4, 0);
+        setCollisionCategory(CollisionLayers.SPIT);
+        setCollisionMask(CollisionLayers.ALL & ~CollisionLayers.SPIT);
+        setVelocity(left ? -4 : 4, 0);
     }
 
     @Override
@@ -36,7 +38,6 @@ public class GooseSpit extends Enemy {
 
     @Override
     public boolean handleCollision(GameEntity collidesWith) {
-        if (collidesWith instanceof GooseSpit) return false;
         if (collidesWith instanceof Player) {
             ((LevelScreen) getScreen()).getPlayer().dealDamage(1);
         }
@@ -45,4 +46,11 @@ public class GooseSpit extends Enemy {
 
         return false; //spit has no physical collision
     }
+
+    @Override
+    public boolean handleTileCollision() {
+        getScreen().removeObject(this); //remove ourselves if we hit the terrain
+
+        return false; //spit has no physical collision
+    }
 }
@@ -1,6 +1,6 @@
 package hashpizza.game.engine.platforming;
 
-import hashpizza.game.engine.util.DeltaTimer;
+import hashpizza.game.engine.util.TimerWheel;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.ConstTexture;
 import org.jsfml.graphics.FloatRect;
@@ -33,7 +33,7 @@ public class GooseSpitter extends Enemy {
     /**
      * Cooldown between subsequent spits and texture updates after a geese has spat
      */
-    private DeltaTimer spitterCooldown = null;
+    private TimerWheel.Timer spitterCooldown = null;
 
     /**
      * Creates a goose spitter enemy
@@ -70,7 +70,7 @@ public class GooseSpitter extends Enemy {
             The spitter spits every few seconds. This section of the code manages that.
              */
             if (spitterCooldown != null) {
-                if (spitterCooldown.update(delta)) { //if the timer is complete, we can remove it and carry on now
+                if (spitterCooldown.isComplete()) { //if the timer is complete, we can remove it and carry on now
                     spitterCooldown = null;
                 }
             } else {
@@ -98,7 +98,7 @@ public class GooseSpitter extends Enemy {
         GooseSpit spit = new GooseSpit((LevelScreen) getScreen(), spitPos, isFacingLeft());
         getScreen().addObject(spit);
 
-        spitterCooldown = new DeltaTimer(1);
+        spitterCooldown = ((LevelScreen) getScreen()).getEnemyTimers().schedule(1, null);
         spitterTimer = 0;
     }
 }
@@ -0,0 +1,284 @@
+package hashpizza.game.engine.platforming;
+
+import hashpizza.game.engine.GameScreen;
+import hashpizza.game.engine.GameWindow;
+import org.jsfml.window.Keyboard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs a level without a render window, stepping its simulation as fast as possible and feeding it scripted key
+ * presses. Used to soak-test and benchmark gameplay on machines without a display
+ */
+public class HeadlessLevelRunner extends GameWindow {
+
+    /**
+     * The level being run
+     */
+    private final LevelScreen level;
+
+    /**
+     * The key presses and releases to feed into the level, ordered by the tick they happen on
+     */
+    private final List<ScriptedKey> script = new ArrayList<>();
+
+    /**
+     * The position within the script of the next key to feed into the level
+     */
+    private int scriptPosition = 0;
+
+    /**
+     * The number of ticks that have been run so far
+     */
+    private int currentTick = 0;
+
+    /**
+     * Whether to automatically confirm the ability selection as soon as it is shown
+     */
+    private boolean autoStart = false;
+
+    /**
+     * Whether to record the level's checksum after every tick
+     */
+    private boolean recordChecksums = false;
+
+    /**
+     * The level's checksum after each tick, if they are being recorded
+     */
+    private final List<Long> checksums = new ArrayList<>();
+
+    /**
+     * The checksums recorded by an earlier run to check each tick against, or null to not check them
+     */
+    private List<Long> expectedChecksums;
+
+    /**
+     * Creates a headless runner for the specified level
+     *
+     * @param schema   the level to run
+     * @param tickRate the number of simulation ticks per simulated second
+     */
+    public HeadlessLevelRunner(LevelSchema schema, int tickRate) {
+        super(Math.max(1, tickRate), true);
+
+        level = new LevelScreen(this, schema);
+        setActiveScreen(level);
+    }
+
+    /**
+     * Presses down a key on the specified tick
+     *
+     * @param tick the tick to press the key on
+     * @param key  the key to press
+     * @return this runner
+     */
+    public HeadlessLevelRunner pressKey(int tick, Keyboard.Key key) {
+        script.add(new ScriptedKey(tick, key, true));
+        return this;
+    }
+
+    /**
+     * Releases a key on the specified tick
+     *
+     * @param tick the tick to release the key on
+     * @param key  the key to release
+     * @return this runner
+     */
+    public HeadlessLevelRunner releaseKey(int tick, Keyboard.Key key) {
+        script.add(new ScriptedKey(tick, key, false));
+        return this;
+    }
+
+    /**
+     * Loads key presses from a script file. Each line is in the format "tick press|release KEY", e.g.
+     * "120 press RIGHT". Blank lines and lines starting with # are ignored
+     *
+     * @param fileName the script file to load
+     * @throws IOException if the file can't be read
+     */
+    public void loadScript(String fileName) throws IOException {
+        for (String line : Files.readAllLines(Paths.get(fileName))) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] parts = line.split("\\s+");
+            if (parts.length != 3) throw new IOException("Invalid script line: " + line);
+
+            script.add(new ScriptedKey(Integer.parseInt(parts[0]), Keyboard.Key.valueOf(parts[2].toUpperCase()),
+                    parts[1].equalsIgnoreCase("press")));
+        }
+    }
+
+    /**
+     * Sets whether to automatically confirm the ability selection (by releasing space) as soon as the level's demo
+     * has finished, so that a level can be run without a script
+     *
+     * @param autoStart whether to skip the ability selection
+     */
+    public void setAutoStart(boolean autoStart) {
+        this.autoStart = autoStart;
+    }
+
+    /**
+     * Sets whether to record the level's checksum after every tick, so they can be saved and compared against later
+     * runs
+     *
+     * @param recordChecksums whether to record the checksums
+     */
+    public void setRecordChecksums(boolean recordChecksums) {
+        this.recordChecksums = recordChecksums;
+    }
+
+    /**
+     * Saves the recorded checksums to a file, one per line in hex
+     *
+     * @param fileName the file to save to
+     * @throws IOException if the file can't be written
+     */
+    public void saveChecksums(String fileName) throws IOException {
+        List<String> lines = new ArrayList<>(checksums.size());
+        for (long checksum : checksums) lines.add(Long.toHexString(checksum));
+
+        Files.write(Paths.get(fileName), lines);
+    }
+
+    /**
+     * @return a read-only view of the checksums recorded so far, one per tick
+     */
+    public List<Long> getChecksums() {
+        return Collections.unmodifiableList(checksums);
+    }
+
+    /**
+     * Loads checksums saved by an earlier run. Every tick's checksum will be checked against them, and running stops
+     * with an exception on the first tick which doesn't match
+     *
+     * @param fileName the file saved by {@link #saveChecksums(String)}
+     * @throws IOException if the file can't be read
+     */
+    public void loadExpectedChecksums(String fileName) throws IOException {
+        expectedChecksums = new ArrayList<>();
+
+        for (String line : Files.readAllLines(Paths.get(fileName))) {
+            if (!line.isBlank()) expectedChecksums.add(Long.parseUnsignedLong(line.strip(), 16));
+        }
+    }
+
+    /**
+     * Runs the level for the specified number of ticks, or until the level is completed
+     *
+     * @param ticks the maximum number of ticks to run
+     * @return the number of ticks actually run
+     */
+    public int run(int ticks) {
+        script.sort(Comparator.comparingInt(k -> k.tick));
+
+        float tickDelta = 1f / getTickRate();
+        int ticksRun = 0;
+
+        while (ticksRun < ticks && !level.isComplete()) {
+            GameScreen screen = getActiveScreen();
+
+            //feed in all the keys for this tick
+            while (scriptPosition < script.size() && script.get(scriptPosition).tick <= currentTick) {
+                ScriptedKey key = script.get(scriptPosition++);
+                screen.handleKey(key.key, key.pressed);
+            }
+
+            if (autoStart && level.getPlayer() != null && !level.isActive()) { //the ability selector is waiting
+                screen.handleKey(Keyboard.Key.SPACE, false);
+            }
+
+            screen.tick(tickDelta);
+            screen.applyObjectChanges();
+            screen.postUpdate();
+
+            if (getProfiler().isEnabled()) getProfiler().endFrame(tickDelta);
+
+            if (recordChecksums || expectedChecksums != null) checkChecksum();
+
+            currentTick++;
+            ticksRun++;
+        }
+
+        return ticksRun;
+    }
+
+    /**
+     * Works out the level's checksum for the tick which was just run, recording it and checking it against the
+     * expected checksums
+     *
+     * @throws IllegalStateException if the checksum doesn't match the expected one
+     */
+    private void checkChecksum() {
+        long checksum = level.computeChecksum();
+
+        if (recordChecksums) checksums.add(checksum);
+
+        if (expectedChecksums != null && currentTick < expectedChecksums.size() && expectedChecksums.get(currentTick) != checksum) {
+            throw new IllegalStateException("Level diverged from the expected run on tick " + currentTick + ": expected checksum "
+                    + Long.toHexString(expectedChecksums.get(currentTick)) + ", got " + Long.toHexString(checksum));
+        }
+    }
+
+    /**
+     * Checks that the run lasted exactly as many ticks as the run the expected checksums were recorded from, since
+     * a run which ends sooner or later (e.g. by completing the level at a different time) has diverged even if every
+     * tick it shares with the expected run matched
+     *
+     * @throws IllegalStateException if the number of ticks run doesn't match the number of expected checksums
+     */
+    public void checkChecksumCount() {
+        if (expectedChecksums != null && currentTick != expectedChecksums.size()) {
+            throw new IllegalStateException("Level diverged from the expected run: ran " + currentTick + " ticks, expected "
+                    + expectedChecksums.size());
+        }
+    }
+
+    /**
+     * @return the level being run
+     */
+    public LevelScreen getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the number of ticks run so far
+     */
+    public int getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * A key press or release to happen on a specific tick
+     */
+    private static class ScriptedKey {
+
+        /**
+         * The tick the key event happens on
+         */
+        final int tick;
+
+        /**
+         * The key pressed or released
+         */
+        final Keyboard.Key key;
+
+        /**
+         * True if the key is pressed, false if released
+         */
+        final boolean pressed;
+
+        ScriptedKey(int tick, Keyboard.Key key, boolean pressed) {
+            this.tick = tick;
+            this.key = key;
+            this.pressed = pressed;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package hashpizza.game.engine.platforming;
 
+import hashpizza.game.engine.FrozenFrame;
 import hashpizza.game.engine.GameObject;
 import hashpizza.game.engine.GameScreen;
 import hashpizza.game.engine.GameSprite;
 import hashpizza.game.engine.GameWindow;
+import hashpizza.game.engine.RenderLayer;
+import hashpizza.game.engine.StaticLayer;
 import hashpizza.game.engine.platforming.abilities.Abilities;
 import hashpizza.game.engine.platforming.abilities.Ability;
 import hashpizza.game.engine.platforming.abilities.AbilityManager;
@@ -19,7 +22,7 @@ import org.jsfml.system.Vector2f;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A level screen handles displaying the contents of actual game level screens
@@ -31,6 +34,16 @@ public class LevelScreen extends GameScreen {
      */
     private static final Music MUSIC_LEVEL = Sounds.getMusic("./res/audio/music/level.wav");
 
+    /**
+     * The starting value and multiplier of the FNV-1a hash used for the checksum
+     */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L, FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * How fast enemies move during slow-motion
+     */
+    private static final float ENEMY_SLOW_MOTION_SCALE = 0.25f;
+
     /**
      * The level schema for the current level. Contains all of the tile data etc. used to add the entities onto the
      * screen
@@ -49,9 +62,47 @@ public class LevelScreen extends GameScreen {
 
     /**
      * A subset of this screen's objects, filtered to only the game's entities. Used to handle physics, collision
-     * logic, screen transitions, etc.
+     * logic, screen transitions, etc. Kept up to date as objects are added and removed
+     */
+    private final ObjectRegistry<GameEntity> entities = new ObjectRegistry<>();
+
+    /**
+     * The positions, velocities and hitboxes of the entities on this screen, packed together so passes over every
+     * entity run through memory in order
+     */
+    private final EntityStore entityStore = new EntityStore(256);
+
+    /**
+     * The pool used to work out entities' moves against the terrain in parallel, or null to work them out during
+     * each entity's update
+     */
+    private ForkJoinPool physicsPool;
+
+    /**
+     * The fewest entities worth splitting across the physics pool, by default
+     */
+    private static final int PARALLEL_PHYSICS_THRESHOLD = 256;
+
+    /**
+     * The fewest entities to split across the physics pool
+     */
+    private int parallelPhysicsThreshold = PARALLEL_PHYSICS_THRESHOLD;
+
+    /**
+     * The hitboxes of the entities on this screen, bucketed by tile so that collision checks only need to look at
+     * nearby entities. Covers the screen plus a tile around it; entities further out are kept in the edge tiles
+     */
+    private final SpatialGrid<GameEntity> collisionGrid = SpatialGrid.forScreen();
+
+    /**
+     * The enemies on this screen, used by abilities which affect every enemy
      */
-    private List<GameEntity> entities = new ArrayList<>();
+    private final ObjectRegistry<Enemy> enemies = new ObjectRegistry<>();
+
+    /**
+     * The static terrain of the current screen
+     */
+    private TileGrid tileGrid;
 
     /**
      * The background image
@@ -64,9 +115,41 @@ public class LevelScreen extends GameScreen {
     private GameObject clouds;
 
     /**
-     * The time at which the user started the level, used for calculating completion time
+     * The object sliding the camera across to the current screen, or null if the screen isn't changing
+     */
+    private GameObject screenTransition;
+
+    /**
+     * Caches the background and clouds in one texture, since they only change when the parallax moves a whole pixel
+     */
+    private final StaticLayer staticLayer = new StaticLayer(GridUtils.SCREEN_WIDTH, GridUtils.SCREEN_HEIGHT, RenderLayer.BACKGROUND);
+
+    /**
+     * Caches the terrain in one texture, which only changes when the screen changes. It is in the world layer, so the
+     * camera pans it during a screen slide without it being redrawn
+     */
+    private final StaticLayer terrainLayer = new StaticLayer(GridUtils.SCREEN_WIDTH, GridUtils.SCREEN_HEIGHT, RenderLayer.WORLD);
+
+    /**
+     * The number of ticks this level has been updated for
+     */
+    private int currentTick = 0;
+
+    /**
+     * The tick on which the user started the level, used for calculating completion time
+     */
+    private int startTick;
+
+    /**
+     * The game time since the user started the level, in seconds. Only counts ticks the level was updated for, so
+     * pauses are excluded
+     */
+    private double playTime;
+
+    /**
+     * Whether the player has made it past the last screen of the level
      */
-    private long startTime; //todo pause time should be factored in and excluded
+    private boolean complete = false;
 
     /**
      * Used to orchestrate changing the screen during the brief demo played at the start of loading a level
@@ -83,11 +166,6 @@ public class LevelScreen extends GameScreen {
      */
     private AbilitySelector abilitySelector;
 
-    /**
-     * Used for performing the transition animation when switching screens during the demo
-     */
-    private List<GameEntity> newScreenEntities;
-
     /**
      * Overlay displaying the level title and icon
      */
@@ -96,7 +174,17 @@ public class LevelScreen extends GameScreen {
     /**
      * Handles slow-motion used for the county ability
      */
-    private DeltaTimer slowMotionTimer;
+    private TimerWheel.Timer slowMotionTimer;
+
+    /**
+     * Timers which run in the enemies' game time, so they are slowed down along with the enemies
+     */
+    private final TimerWheel enemyTimers = new TimerWheel();
+
+    /**
+     * Whether slow-motion is active for the current update
+     */
+    private boolean slowMotionActive;
 
     /**
      * Creates a level screen
@@ -117,7 +205,12 @@ public class LevelScreen extends GameScreen {
             @Override
             public void update(float delta) {
                 if (player != null) { //parallax effect - so it follows the player in the opposite direction to where they move
-                    background.setPosition(960 - (player.getPosition().x / 40), 540);
+                    float x = 960 - Math.round(player.getPosition().x / 40); //in whole pixels, so the cache is redrawn less
+
+                    if (x != background.getPosition().x) {
+                        background.setPosition(x, 540);
+                        staticLayer.invalidate();
+                    }
                 }
             }
         };
@@ -126,12 +219,15 @@ public class LevelScreen extends GameScreen {
         background.setPosition(GridUtils.SCREEN_WIDTH * 0.5f, GridUtils.SCREEN_HEIGHT * 0.5f);
         background.setColor(Color.CYAN);
 
-        clouds = new BackgroundClouds();
+        clouds = new BackgroundClouds(staticLayer);
 
-        addObject(background);
-        addObject(clouds);
+        staticLayer.add(background);
+        staticLayer.add(clouds);
+        addObject(staticLayer);
+        addObject(terrainLayer); //before any entities, so the terrain is drawn behind them
 
         demoOverlay = new DemoOverlay(schema);
+        addObject(demoOverlay);
 
         displayLevelScreen(schema.screens[0], true, false); //load and display the first screen
 
@@ -185,7 +281,8 @@ public class LevelScreen extends GameScreen {
     public void completedAbilitySelection() {
         addObject(abilityManager = new AbilityManager(LevelScreen.this, abilitySelector.getSlots()));
 
-        startTime = System.currentTimeMillis();
+        startTick = currentTick;
+        playTime = 0;
     }
 
     /**
@@ -194,23 +291,16 @@ public class LevelScreen extends GameScreen {
      */
     public void nextScreen() {
         if (++currentScreenId >= schema.screens.length) {
-            getWindow().setActiveScreen(new LevelCompleteScreen(getWindow(), schema, System.currentTimeMillis() - startTime));
+            complete = true;
+
+            if (getWindow().isHeadless()) return; //nothing to display, and we don't want to save the time
+
+            getWindow().setActiveScreen(new LevelCompleteScreen(getWindow(), schema, Math.round(playTime * 1000)));
         } else {
             displayLevelScreen(schema.screens[currentScreenId], false, false);
         }
     }
 
-    /**
-     * Adds an entity to the screen. Required to properly handle the screen transition during the game demo
-     *
-     * @param entity the entity to add to the screen
-     */
-    private void addNewScreenEntity(GameEntity entity) {
-
-        newScreenEntities.add(entity);
-        addObject(entity);
-    }
-
     /**
      * Displays the specified level data
      *
@@ -221,12 +311,13 @@ public class LevelScreen extends GameScreen {
     public void displayLevelScreen(LevelSchema.LevelScreenData data, boolean isDemo, boolean slide) {
 
         //get all the previous entities on the screen, used if the slide animation will be used
-        List<GameEntity> prevEntities = getObjects().stream().filter(e -> (e instanceof GameEntity) && !(e instanceof Player)).map(e -> (GameEntity) e).collect(Collectors.toList());
-
-        newScreenEntities = new ArrayList<>();
+        List<GameEntity> prevEntities = new ArrayList<>(entities.asList());
+        prevEntities.remove(player);
 
-        if (abilitySelector != null)
-            removeObject(abilitySelector); //will be re-added later - to ensure it is always displayed on top
+        //the static terrain is kept in a grid rather than as entities
+        TileGrid prevTileGrid = tileGrid;
+        tileGrid = new TileGrid(this, data.tileMap, schema.meta.foreground);
+        terrainLayer.add(tileGrid);
 
         if (player != null) {
             Vector2f pos = new Vector2f(0, player.getPosition().y - 0.5f);
@@ -240,18 +331,20 @@ public class LevelScreen extends GameScreen {
         //parsing the tile map of each level
         for (String s : data.tileMap) {
             for (char c : s.toCharArray()) {
-                if (c == '1') {
-                    addNewScreenEntity(new Block(this, x, y, schema.meta.foreground, Block.BLOCK));
-                } else if (c == '2') {
-                    addNewScreenEntity(new Block(this, x, y, schema.meta.foreground, Block.BLOCK)    //this is just a temporary tests to try out lifts
+                if (c == '2') {
+                    addObject(new Block(this, x, y, schema.meta.foreground, Block.BLOCK)    //this is just a temporary tests to try out lifts
                     {
 
                         float totalTime = 0;
                         int moveDirection = 1;
 
+                        {
+                            setBodyState(BodyState.KINEMATIC);
+                        }
+
                         @Override
                         public void update(float delta) {
-                            velocity = new Vector2f(moveDirection, 0f);
+                            setVelocity(moveDirection, 0f);
 
                             totalTime += delta;
 
@@ -264,21 +357,15 @@ public class LevelScreen extends GameScreen {
                             super.update(delta);
                         }
                     });
-                } else if (c == '3') {
-                    addNewScreenEntity(new Spikes(this, x, y, schema.meta.foreground));
-                } else if (c == 'g') {
-                    addNewScreenEntity(new Block(this, x, y, null, Block.GRASS));
-                } else if (c == 'd') {
-                    addNewScreenEntity(new Block(this, x, y, null, Block.DIRT));
                 } else if (c == 'G') {
-                    addNewScreenEntity(new GooseGrunt(this, GridUtils.convertGridCoordinatesToPixels(x, y), true));
+                    addObject(new GooseGrunt(this, GridUtils.convertGridCoordinatesToPixels(x, y), true));
                 } else if (c == 'S') {
-                    addNewScreenEntity(new GooseSpitter(this, GridUtils.convertGridCoordinatesToPixels(x, y), true));
+                    addObject(new GooseSpitter(this, GridUtils.convertGridCoordinatesToPixels(x, y), true));
                 } else if (c == 'V') {
-                    addNewScreenEntity(new GooseSpike(this, GridUtils.convertGridCoordinatesToPixels(x, y), true));
+                    addObject(new GooseSpike(this, GridUtils.convertGridCoordinatesToPixels(x, y), true));
                 } else if (c == 'P' && !isDemo) {
                     player = new Player(this, GridUtils.convertGridCoordinatesToPixels(x, y));
-                    addNewScreenEntity(player);
+                    addObject(player);
                 }
                 x++;
             }
@@ -287,55 +374,61 @@ public class LevelScreen extends GameScreen {
             y++;
         }
 
-        removeObject(demoOverlay);
-
-        if (isDemo) {
-            addObject(demoOverlay); //to stay on top
+        if (!isDemo && demoOverlay != null) { //the demo is over
+            removeObject(demoOverlay);
+            demoOverlay = null;
         }
 
-        if (abilitySelector != null) {
-            addObject(abilitySelector); //to ensure it is rendered on top of everything else
-        }
+        if (slide) {
+            //freeze the previous screen into one texture, so its objects can be removed rather than slid along with it
+            List<GameObject> prevObjects = new ArrayList<>(prevEntities);
 
-        if (!slide) { //just delete the previous objects
-            for (GameEntity e : prevEntities) {
-                removeObject(e);
-            }
+            if (prevTileGrid != null) prevObjects.add(0, prevTileGrid);
 
-            return;
-        }
+            FrozenFrame prevScreen = new FrozenFrame(prevObjects, GridUtils.SCREEN_WIDTH, GridUtils.SCREEN_HEIGHT, RenderLayer.WORLD);
+            prevScreen.setPosition(new Vector2f(-GridUtils.SCREEN_WIDTH, 0));
 
-        List<GameEntity> newEntities = new ArrayList<>(newScreenEntities);
+            addObject(prevScreen);
+            slideToScreen(prevScreen);
+        }
 
-        for (GameEntity e : newEntities) {
-            e.setOrigin(e.getOrigin().x - GridUtils.SCREEN_WIDTH, e.getOrigin().y); //set them to render off the right side of the screen
+        for (GameEntity e : prevEntities) {
+            removeObject(e);
         }
 
-        addObject(new GameObject() {
-            Animation screenChangeAnimation = new Animation(0, -GridUtils.SCREEN_WIDTH, 1.0f, false, Animations.EASE_IN_OUT);
+        if (prevTileGrid != null) terrainLayer.remove(prevTileGrid);
+    }
 
-            float prevScreenChangePos;
+    /**
+     * Slides from the previous screen to the current one, by panning the camera from the previous screen's frozen image
+     * (to the left of the world) across to the world
+     *
+     * @param prevScreen the frozen image of the previous screen
+     */
+    private void slideToScreen(FrozenFrame prevScreen) {
+        setCameraOffset(new Vector2f(-GridUtils.SCREEN_WIDTH, 0));
+
+        addObject(screenTransition = new GameObject() {
+            Animation screenChangeAnimation = new Animation(0, -GridUtils.SCREEN_WIDTH, 1.0f, false, Animations.EASE_IN_OUT);
 
             @Override
             public void update(float delta) {
-                float screenChangePos = screenChangeAnimation.update(delta);
-                float diff = prevScreenChangePos - screenChangePos;
-
-                prevScreenChangePos = screenChangePos;
-
-                //slide the previous entities from their current pos to off the left of it
-                for (GameEntity e : prevEntities) {
-                    e.setOrigin(e.getOrigin().x + diff, e.getOrigin().y);
+                if (screenTransition != this) { //another screen change has taken over
+                    removeObject(prevScreen);
+                    removeObject(this);
+                    return;
                 }
 
-                //slide the new entities from off the right of the screen to their actual position on screen
-                for (GameEntity e : newEntities) {
-                    e.setOrigin(e.getOrigin().x + diff, e.getOrigin().y);
-                }
+                float cameraX = -GridUtils.SCREEN_WIDTH - screenChangeAnimation.update(delta);
+
+                setCameraOffset(new Vector2f(cameraX, 0)); //only the camera moves, so no cached layer is redrawn
 
                 if (screenChangeAnimation.isComplete()) {
-                    prevEntities.forEach(e -> removeObject(e));
+                    setCameraOffset(Vector2f.ZERO);
+
+                    removeObject(prevScreen);
                     removeObject(this);
+                    screenTransition = null;
                 }
             }
 
@@ -347,22 +440,54 @@ public class LevelScreen extends GameScreen {
     }
 
     @Override
-    public void postUpdate() {
-        if (areObjectsModified()) {
-            //make sure the entity list is up to date
-            entities = getObjects().stream().filter(o -> o instanceof GameEntity).map(o -> (GameEntity) o).collect(Collectors.toList());
+    protected void onObjectAdded(GameObject obj) {
+        if (obj instanceof GameEntity) {
+            entities.add((GameEntity) obj);
+            entityStore.adopt((GameEntity) obj);
+            ((GameEntity) obj).addToCollisionGrid(collisionGrid);
         }
+        if (obj instanceof Enemy) enemies.add((Enemy) obj);
+    }
 
-        super.postUpdate();
+    @Override
+    protected void onObjectRemoved(GameObject obj) {
+        if (obj instanceof GameEntity && entities.contains((GameEntity) obj)) {
+            entities.remove((GameEntity) obj);
+            entityStore.detach((GameEntity) obj); //keep its state in case it is added again
+            ((GameEntity) obj).removeFromCollisionGrid(collisionGrid);
+        }
+        if (obj instanceof Enemy) enemies.remove((Enemy) obj);
     }
 
     /**
-     * Gets the subset of the screen's objects that are game entities
+     * Gets the subset of the screen's objects that are game entities. The returned list is a read-only view which
+     * changes as entities are added and removed
      *
      * @return the game entities on this screen
      */
     public List<GameEntity> getEntities() {
-        return entities;
+        return entities.asList();
+    }
+
+    /**
+     * @return the grid of entity hitboxes used to find collisions
+     */
+    public SpatialGrid<GameEntity> getCollisionGrid() {
+        return collisionGrid;
+    }
+
+    /**
+     * @return a read-only view of the enemies on this screen
+     */
+    public List<Enemy> getEnemies() {
+        return enemies.asList();
+    }
+
+    /**
+     * @return the static terrain of the current screen
+     */
+    public TileGrid getTileGrid() {
+        return tileGrid;
     }
 
     /**
@@ -389,34 +514,147 @@ public class LevelScreen extends GameScreen {
     }
 
     /**
-     * Gets the epoch time that the player started the level at
+     * @return whether the player has completed the level
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Gets the tick that the player started the level on
      *
-     * @return the time that the player started the level
+     * @return the tick that the player started the level on
      */
-    public long getStartTime() {
-        return startTime;
+    public int getStartTick() {
+        return startTick;
     }
 
-    public void setSlowMotionTimer(DeltaTimer slowMotionTimer) {
+    /**
+     * @return the number of ticks this level has been updated for
+     */
+    public int getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Works out a checksum of the state of the level's simulation: the tick, and the position, velocity, health and
+     * body state of every entity, in the order they were added. Two runs fed the same keys on the same ticks should
+     * have the same checksum after every tick, so comparing them shows the first tick they diverged on
+     *
+     * @return the checksum
+     */
+    public long computeChecksum() {
+        long hash = mix(FNV_OFFSET, currentTick);
+        hash = mix(hash, currentScreenId);
+
+        List<GameObject> objects = getObjects();
+
+        for (int i = 0; i < objects.size(); i++) {
+            if (!(objects.get(i) instanceof GameEntity)) continue;
+
+            GameEntity entity = (GameEntity) objects.get(i);
 
-        this.slowMotionTimer = slowMotionTimer;
+            hash = mix(hash, Float.floatToIntBits(entity.getX()));
+            hash = mix(hash, Float.floatToIntBits(entity.getY()));
+            hash = mix(hash, Float.floatToIntBits(entity.getVelocityX()));
+            hash = mix(hash, Float.floatToIntBits(entity.getVelocityY()));
+            hash = mix(hash, entity.getHealth());
+            hash = mix(hash, entity.getBodyState().ordinal());
+        }
+
+        return hash;
+    }
+
+    /**
+     * Mixes a value into an FNV-1a hash, a byte at a time
+     */
+    private static long mix(long hash, int value) {
+        for (int i = 0; i < 4; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
     }
 
     /**
-     * @return the slow-motion timer, used for the county ability
+     * Slows down the enemies for the specified duration, used for the county ability
+     *
+     * @param duration how long to slow down the enemies for, in seconds
      */
-    public DeltaTimer getSlowMotionTimer() {
-        return slowMotionTimer;
+    public void startSlowMotion(float duration) {
+        if (slowMotionTimer != null) slowMotionTimer.cancel();
+
+        slowMotionTimer = getTimers().schedule(duration, null);
+    }
+
+    /**
+     * Sets the pool used to work out entities' moves against the terrain in parallel at the start of each update,
+     * once there are enough entities to be worth it. Collisions between entities and their side effects are still
+     * handled one entity at a time, in the same order, so the level plays out the same either way
+     *
+     * @param physicsPool the pool to use, or null to do all of the physics during each entity's update
+     */
+    public void setPhysicsPool(ForkJoinPool physicsPool) {
+        setPhysicsPool(physicsPool, PARALLEL_PHYSICS_THRESHOLD);
+    }
+
+    /**
+     * Sets the pool used to work out entities' moves against the terrain in parallel, and how many entities there
+     * need to be before it is used. A low threshold is useful for checking that the pool doesn't change the results
+     *
+     * @param physicsPool the pool to use, or null to do all of the physics during each entity's update
+     * @param threshold   the fewest entities to split across the pool
+     */
+    public void setPhysicsPool(ForkJoinPool physicsPool, int threshold) {
+        this.physicsPool = physicsPool;
+        this.parallelPhysicsThreshold = threshold;
+    }
+
+    /**
+     * @return the timers which run in the enemies' game time, which is slowed down during slow-motion
+     */
+    public TimerWheel getEnemyTimers() {
+        return enemyTimers;
     }
 
     @Override
-    public void update(RenderTarget target, float delta) {
+    protected void beginUpdate(float delta) {
+        super.beginUpdate(delta);
+
+        currentTick++;
+        playTime += delta;
+
+        slowMotionActive = slowMotionTimer != null && !slowMotionTimer.isComplete() && !slowMotionTimer.isCancelled();
+
+        enemyTimers.advance(slowMotionActive ? delta * ENEMY_SLOW_MOTION_SCALE : delta);
+
+        //remember where each entity was before this update, so they can be drawn in between ticks
+        entityStore.storePreviousPositions();
 
-        boolean slowMo = slowMotionTimer != null && !slowMotionTimer.update(delta); //check if slow-mo timer is not complete
+        //the moves are only used if nothing changes before each entity is updated, so the results are the same
+        if (physicsPool != null && tileGrid != null && isActive() && entityStore.size() >= parallelPhysicsThreshold) {
+            entityStore.prepareMoves(physicsPool, tileGrid, entity -> entity.prepareMove(getObjectDelta(entity, delta)));
+        }
+    }
 
-        for (GameObject obj : getObjects()) {
-            obj.update(slowMo && (obj instanceof Enemy) ? delta * 0.25f : delta); //update and draw each object for each game loop
-            obj.draw(target, RenderStates.DEFAULT);
+    /**
+     * Steps just the physics of every entity, as an update would, without running their behaviour or any of the
+     * screen's timers. Used to measure the physics on its own, e.g. to check that it doesn't allocate
+     *
+     * @param delta the time in seconds to simulate
+     */
+    public void stepPhysics(float delta) {
+        entityStore.storePreviousPositions();
+
+        for (int i = 0; i < entities.size(); i++) {
+            GameEntity entity = entities.get(i);
+            entity.stepPhysics(getObjectDelta(entity, delta));
         }
     }
+
+    @Override
+    protected float getObjectDelta(GameObject obj, float delta) {
+        return slowMotionActive && (obj instanceof Enemy) ? delta * ENEMY_SLOW_MOTION_SCALE : delta;
+    }
 }
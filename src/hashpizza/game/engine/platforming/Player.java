@@ -1,6 +1,5 @@
 package hashpizza.game.engine.platforming;
 
-import hashpizza.game.engine.GameObject;
 import hashpizza.game.engine.KeyHandler;
 import hashpizza.game.engine.util.*;
 import org.jsfml.audio.Sound;
@@ -73,19 +72,17 @@ public class Player extends GameEntity implements KeyHandler {
     private boolean canDoubleJump;
 
     /**
-     * The duration of each dash
+     * Ability durations
      */
-    private DeltaTimer dashTimer = new DeltaTimer(0.5f);
+    private static final float DASH_DURATION = 0.5f;
+    private static final float SHIELD_DURATION = 3f;
+    private static final float ROAR_DURATION = 1f;
+    private static final float ROAR_STUN_DURATION = 5f;
 
     /**
-     * The duration of each shield usage
+     * Timers for when the shield and roar end, so they can be restarted if used again
      */
-    private DeltaTimer shieldTimer = new DeltaTimer(3f);
-
-    /**
-     * The duration of the roar
-     */
-    private DeltaTimer roarTimer = new DeltaTimer(1f);
+    private TimerWheel.Timer shieldTimer, roarTimer;
 
     /**
      * Where the player respawns when they die
@@ -101,6 +98,7 @@ public class Player extends GameEntity implements KeyHandler {
     public Player(LevelScreen screen, Vector2f position) {
         super(screen, position, false, TEXTURE_IDLE);
 
+        setCollisionCategory(CollisionLayers.PLAYER);
         setSpawnLocation(position);
     }
 
@@ -113,61 +111,46 @@ public class Player extends GameEntity implements KeyHandler {
         //Abilities: shield
         if (hasShield) {
             setHealth(Integer.MAX_VALUE);
-
-            if (shieldTimer.update(delta)) {
-                setHealth(1);
-
-                shieldTimer.reset();
-                hasShield = false;
-            }
         }
 
         //Abilities: dash
-        if (!dashTimer.update(delta)) {
-            if (dashUsed) {
-                setTexture(TEXTURE_DASH_PLAYER);
-                dashUsed = true;
-                velocity = new Vector2f((isFacingLeft() ? -1 : 1) * 10, velocity.y);
-                Dash dash = new Dash((LevelScreen) getScreen(), getPosition(), isFacingLeft());
-                getScreen().addObject(dash);
-            }
-        } else {
-            dashUsed = false;
-            setGravity(true);
-            dashTimer.reset();
+        if (dashUsed) {
+            setTexture(TEXTURE_DASH_PLAYER);
+            setVelocityX((isFacingLeft() ? -1 : 1) * 10);
+            Dash dash = new Dash((LevelScreen) getScreen(), getPosition(), isFacingLeft());
+            getScreen().addObject(dash);
         }
 
         if (leftPressed && !rightPressed) { //Movement: left
-            float newVel = velocity.x - (0.1f * delta * 60);
+            float newVel = getVelocityX() - (0.1f * delta * 60);
 
-            velocity = new Vector2f(newVel, velocity.y);
+            setVelocityX(newVel);
             setFacingLeft(true);
 
         } else if (rightPressed && !leftPressed) { //Movement: right
-            float newVel = velocity.x + (0.1f * delta * 60);
+            float newVel = getVelocityX() + (0.1f * delta * 60);
 
-            velocity = new Vector2f(newVel, velocity.y);
+            setVelocityX(newVel);
             setFacingLeft(false);
 
         } else {
-            float newVel = velocity.x * 0.95f;
-            velocity = new Vector2f(newVel, velocity.y);
+            float newVel = getVelocityX() * (float) StrictMath.pow(0.95f, delta * 60); //friction, scaled so it is the same at any tick rate, and on any machine
+            setVelocityX(newVel);
         }
 
         float velCapX = dashUsed ? VELOCITY_CAP_X_DASHING : VELOCITY_CAP_X;
 
-        if (Math.abs(velocity.x) > velCapX) {
-            velocity = new Vector2f((velocity.x < 0 ? -1 : 1) * velCapX, velocity.y);
+        if (Math.abs(getVelocityX()) > velCapX) {
+            setVelocityX((getVelocityX() < 0 ? -1 : 1) * velCapX);
         }
 
         if (isOnGround() && jumpPressed) {
-            SOUND_JUMP.play();
-            velocity = Vector2f.add(velocity, new Vector2f(0, -5.5f));
-            System.out.println(System.currentTimeMillis());
+            Sounds.play(getScreen(), SOUND_JUMP);
+            setVelocityY(getVelocityY() - 5.5f);
             canDoubleJump = true;
         } else if (!isOnGround() && doubleJumping && canDoubleJump) {
-            SOUND_JUMP.play();
-            velocity = Vector2f.add(velocity, new Vector2f(0, -3.5f));
+            Sounds.play(getScreen(), SOUND_JUMP);
+            setVelocityY(getVelocityY() - 3.5f);
             canDoubleJump = false;
         }
 
@@ -175,13 +158,9 @@ public class Player extends GameEntity implements KeyHandler {
         //roar
         if(roarUsed){
             setTexture(TEXTURE_ROAR);
-            if(roarTimer.update(delta)){
-                roarTimer.reset();
-                roarUsed = false;
-            }
         }
         else if (dashUsed) {
-            SOUND_DASH.play();
+            Sounds.play(getScreen(), SOUND_DASH);
             setTexture(TEXTURE_DASH_PLAYER);
         } else if (drawingBow) {
             bowDrawDuration += delta;
@@ -194,19 +173,19 @@ public class Player extends GameEntity implements KeyHandler {
         } else if (!isOnGround()) {
             if (gliding) {
                 setTexture(TEXTURE_SLOWFALL);
-                velocity = new Vector2f(velocity.x, -0.0005f);
+                setVelocityY(-0.0005f);
             } else {
                 setTexture(TEXTURE_JUMP);
             }
-        } else if (Math.abs(velocity.x) < 0.05) {
+        } else if (Math.abs(getVelocityX()) < 0.05) {
             setTexture(TEXTURE_IDLE);
         } else {
-            ConstTexture runTexture = ANIMATION_RUN.update(delta * Math.abs(velocity.x));
+            ConstTexture runTexture = ANIMATION_RUN.update(delta * Math.abs(getVelocityX()));
             setTexture(runTexture);
 
             if (ANIMATION_RUN.textureChanged()) {
 
-                SOUND_STEP.play();
+                Sounds.play(getScreen(), SOUND_STEP);
             }
         }
 
@@ -232,13 +211,13 @@ public class Player extends GameEntity implements KeyHandler {
             }
         }
 
-        float x = getPosition().x;
-        float y = getPosition().y;
+        float x = getX();
+        float y = getY();
 
         if (x >= GridUtils.SCREEN_WIDTH) { //if the player has reached the end of the current screen
             ((LevelScreen) getScreen()).nextScreen();
         } else if (x <= 0) { //if the player attempts to backtrack off the left of the screen, move them forwards
-            setPosition(0, getPosition().y);
+            setPosition(0, y);
         }
 
         if (y >= GridUtils.SCREEN_HEIGHT) { //if they fall off the stage then kill the player
@@ -262,8 +241,15 @@ public class Player extends GameEntity implements KeyHandler {
      * dashing
      */
     public void dash() {
+        if (dashUsed) return;
+
         dashUsed = true;
         setGravity(false);
+
+        getScreen().getTimers().schedule(DASH_DURATION, () -> {
+            dashUsed = false;
+            setGravity(true);
+        });
     }
 
     /**
@@ -321,7 +307,7 @@ public class Player extends GameEntity implements KeyHandler {
         Arrow arrow = new Arrow((LevelScreen) getScreen(), Vector2f.add(getPosition(), new Vector2f(getLocalBounds().width * 0.5f, getLocalBounds().height * 0.5f)), isFacingLeft(), bowDrawDuration);
         getScreen().addObject(arrow);
 
-        SOUND_SHOOT_ARROW.play();
+        Sounds.play(getScreen(), SOUND_SHOOT_ARROW);
 
         bowDrawDuration = 0;
     }
@@ -333,7 +319,7 @@ public class Player extends GameEntity implements KeyHandler {
         Potion potion = new Potion((LevelScreen) getScreen(), getPosition(), this.isFacingLeft());
         getScreen().addObject(potion);
 
-        SOUND_THROW.play();
+        Sounds.play(getScreen(), SOUND_THROW);
     }
 
     /**
@@ -341,12 +327,13 @@ public class Player extends GameEntity implements KeyHandler {
      */
     public void roar() {
         roarUsed = true;
-        SOUND_LION_ROAR.play();
-        for (GameObject object : getScreen().getObjects()) {
-            if (object instanceof Enemy) {
-                ((Enemy) object).setStunTimer(new DeltaTimer(5));
-            }
+        Sounds.play(getScreen(), SOUND_LION_ROAR);
+        for (Enemy enemy : ((LevelScreen) getScreen()).getEnemies()) {
+            enemy.stun(ROAR_STUN_DURATION);
         }
+
+        if (roarTimer != null) roarTimer.cancel();
+        roarTimer = getScreen().getTimers().schedule(ROAR_DURATION, () -> roarUsed = false);
     }
 
     /**
@@ -355,7 +342,11 @@ public class Player extends GameEntity implements KeyHandler {
     public void useShield() {
         hasShield = true;
 
-        shieldTimer.reset();
+        if (shieldTimer != null) shieldTimer.cancel();
+        shieldTimer = getScreen().getTimers().schedule(SHIELD_DURATION, () -> {
+            hasShield = false;
+            setHealth(1);
+        });
 
       //  Shield shield = new Shield((LevelScreen) getScreen(), getPosition());
        // getScreen().addObject(shield);
@@ -388,7 +379,7 @@ public class Player extends GameEntity implements KeyHandler {
 
     @Override
     public void onDamage() {
-        SOUND_GRUNT.play();
+        Sounds.play(getScreen(), SOUND_GRUNT);
 
         if (isDead()) {
             setColor(Color.RED);
@@ -1,7 +1,6 @@
 package hashpizza.game.engine.platforming;
 
 import hashpizza.game.engine.util.AnimatedTexture;
-import hashpizza.game.engine.util.DeltaTimer;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.ConstTexture;
 import org.jsfml.system.Vector2f;
@@ -26,9 +25,9 @@ public class Potion extends GameEntity {
     private static AnimatedTexture ANIMATED_TEXTURE_POTION = new AnimatedTexture(0.2f, TEXTURE_POTION_SPLASH, TEXTURE_POTION_SPLASH_2, TEXTURE_POTION_SPLASH_3, TEXTURE_POTION_SPLASH_4);
 
     /**
-     * Timer until this object is automatically removed
+     * Time until this object is automatically removed
      */
-    private DeltaTimer leaveTimer = new DeltaTimer(3.5f);
+    private static final float LEAVE_TIME = 3.5f;
 
     /**
      * Creates a potion
@@ -40,18 +39,19 @@ public class Potion extends GameEntity {
     public Potion(LevelScreen screen, Vector2f position, boolean left) {
         super(screen, position, left, TEXTURE_POTION);
 
-        velocity = new Vector2f((isFacingLeft() ? -1 : 1) * 3, -5);
+        setVelocity((isFacingLeft() ? -1 : 1) * 3, -5);
+
+        setCollisionCategory(CollisionLayers.POTION);
+        setCollisionMask(CollisionLayers.ALL & ~(CollisionLayers.POTION | CollisionLayers.PLAYER));
+
+        screen.getTimers().schedule(LEAVE_TIME, () -> getScreen().removeObject(this)); //time is up!
     }
 
     @Override
     public void update(float delta) {
         if (isOnGround()) {
             setTexture(ANIMATED_TEXTURE_POTION.update(delta));
-            velocity = new Vector2f(0, 0);
-        }
-
-        if (leaveTimer.update(delta)) { //time is up!
-            getScreen().removeObject(this);
+            setVelocity(0, 0);
         }
 
         super.update(delta);
@@ -59,7 +59,6 @@ public class Potion extends GameEntity {
 
     @Override
     public boolean handleCollision(GameEntity collidesWith) {
-        if (collidesWith instanceof Potion || collidesWith instanceof Player) return false;
         if (collidesWith instanceof Enemy) getScreen().removeObject(collidesWith);
         return true;
     }
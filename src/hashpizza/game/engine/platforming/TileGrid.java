@@ -0,0 +1,353 @@
+package hashpizza.game.engine.platforming;
+
+import hashpizza.game.engine.FrameSnapshot;
+import hashpizza.game.engine.GameObject;
+import hashpizza.game.engine.GameWindow;
+import hashpizza.game.engine.util.GridUtils;
+import hashpizza.game.engine.util.Textures;
+import org.jsfml.graphics.*;
+import org.jsfml.system.Vector2f;
+
+/**
+ * The static terrain of one level screen, stored as a grid of tile types rather than an entity per tile. Entities
+ * collide with the solid tiles they overlap, and the player is damaged by any hazard tiles they touch
+ */
+public class TileGrid implements GameObject {
+
+    /**
+     * The tile types
+     */
+    public static final byte EMPTY = 0;
+    public static final byte BLOCK = 1;
+    public static final byte SPIKES = 2;
+    public static final byte GRASS = 3;
+    public static final byte DIRT = 4;
+
+    /**
+     * Tile flags, for whether a tile is solid and whether it damages the player
+     */
+    private static final int SOLID = 1;
+    private static final int HAZARD = 2;
+
+    /**
+     * The flags for each tile type
+     */
+    private static final int[] FLAGS = {0, SOLID, SOLID | HAZARD, SOLID, SOLID};
+
+    /**
+     * The spike texture
+     */
+    private static final ConstTexture TEXTURE_SPIKE = Textures.getTexture("./res/misc/spike.png");
+
+    /**
+     * The textures of each tile type packed side by side into one texture, so that the whole grid can be drawn
+     * with a single texture. Each type's texture starts at its type number times the tile width
+     */
+    private static final ConstTexture TILE_TEXTURE = packTileTextures(null, Block.BLOCK, TEXTURE_SPIKE, Block.GRASS, Block.DIRT);
+
+    /**
+     * How far a hazard tile reaches beyond its top and left edges, so that standing next to it still counts
+     */
+    private static final float HAZARD_REACH = 0.2f;
+
+    /**
+     * How far a hitbox can overlap a tile before it counts as colliding with it. Hitboxes which have been moved flush
+     * against a tile may end up very slightly inside it due to rounding
+     */
+    static final float COLLISION_EPSILON = 0.01f;
+
+    /**
+     * The level screen this terrain is on
+     */
+    private final LevelScreen screen;
+
+    /**
+     * The tile type of each cell, stored row by row
+     */
+    private final byte[] tiles;
+
+    /**
+     * The number of columns and rows in the grid
+     */
+    private final int columns, rows;
+
+    /**
+     * A textured quad for every non-empty tile, built once when the grid is created so that drawing the terrain is a
+     * single draw call. Never changed afterwards, so it can safely be drawn from the render thread
+     */
+    private final VertexArray vertices = new VertexArray(PrimitiveType.QUADS);
+
+    /**
+     * Creates the terrain for a screen from its tile map. '1' is a block, '3' is spikes, 'g' is grass and 'd' is dirt,
+     * and any other character is empty
+     *
+     * @param screen     the level screen the terrain is on
+     * @param tileMap    the rows of the screen's tile map
+     * @param foreground the colour to apply to blocks and spikes
+     */
+    public TileGrid(LevelScreen screen, String[] tileMap, Color foreground) {
+        this.screen = screen;
+
+        int width = 0;
+        for (String row : tileMap) {
+            width = Math.max(width, row.length());
+        }
+
+        columns = width;
+        rows = tileMap.length;
+        tiles = new byte[columns * rows];
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < tileMap[y].length(); x++) {
+                char c = tileMap[y].charAt(x);
+
+                if (c == '1') {
+                    tiles[y * columns + x] = BLOCK;
+                } else if (c == '3') {
+                    tiles[y * columns + x] = SPIKES;
+                } else if (c == 'g') {
+                    tiles[y * columns + x] = GRASS;
+                } else if (c == 'd') {
+                    tiles[y * columns + x] = DIRT;
+                }
+            }
+        }
+
+        buildVertices(foreground != null ? foreground : Color.WHITE);
+    }
+
+    /**
+     * Packs the textures for each tile type into one texture, side by side in order of type
+     *
+     * @param textures the texture for each tile type, or null for types which aren't drawn
+     * @return the packed texture
+     */
+    private static ConstTexture packTileTextures(ConstTexture... textures) {
+        if (GameWindow.isHeadlessProcess()) return textures[BLOCK]; //never drawn, and the textures have no pixels to pack
+
+        Image packed = new Image();
+        packed.create(GridUtils.TILE_WIDTH * textures.length, GridUtils.TILE_HEIGHT, Color.TRANSPARENT);
+
+        for (int type = 0; type < textures.length; type++) {
+            if (textures[type] != null) packed.copy(textures[type].copyToImage(), type * GridUtils.TILE_WIDTH, 0);
+        }
+
+        try {
+            Texture texture = new Texture();
+            texture.loadFromImage(packed);
+
+            return texture;
+        } catch (TextureCreationException ex) {
+            ex.printStackTrace();
+            return textures[BLOCK];
+        }
+    }
+
+    /**
+     * Adds a quad for every non-empty tile to the vertex array
+     *
+     * @param foreground the colour to apply to blocks and spikes
+     */
+    private void buildVertices(Color foreground) {
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                byte type = tiles[row * columns + column];
+                if (type == EMPTY) continue;
+
+                Color colour = type == BLOCK || type == SPIKES ? foreground : Color.WHITE;
+
+                float left = column * GridUtils.TILE_WIDTH, top = row * GridUtils.TILE_HEIGHT;
+                float right = left + GridUtils.TILE_WIDTH, bottom = top + GridUtils.TILE_HEIGHT;
+                float textureLeft = type * GridUtils.TILE_WIDTH, textureRight = textureLeft + GridUtils.TILE_WIDTH;
+
+                vertices.add(new Vertex(new Vector2f(left, top), colour, new Vector2f(textureLeft, 0)));
+                vertices.add(new Vertex(new Vector2f(right, top), colour, new Vector2f(textureRight, 0)));
+                vertices.add(new Vertex(new Vector2f(right, bottom), colour, new Vector2f(textureRight, GridUtils.TILE_HEIGHT)));
+                vertices.add(new Vertex(new Vector2f(left, bottom), colour, new Vector2f(textureLeft, GridUtils.TILE_HEIGHT)));
+            }
+        }
+    }
+
+    /**
+     * @param column the tile column
+     * @param row    the tile row
+     * @return the type of the tile, or empty if it is outside of the grid
+     */
+    public byte getTile(int column, int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) return EMPTY;
+
+        return tiles[row * columns + column];
+    }
+
+    /**
+     * @param column the tile column
+     * @param row    the tile row
+     * @return whether entities collide with the tile
+     */
+    public boolean isSolid(int column, int row) {
+        return (FLAGS[getTile(column, row)] & SOLID) != 0;
+    }
+
+    /**
+     * @param column the tile column
+     * @param row    the tile row
+     * @return whether the tile damages the player
+     */
+    public boolean isHazard(int column, int row) {
+        return (FLAGS[getTile(column, row)] & HAZARD) != 0;
+    }
+
+    /**
+     * Checks whether the specified area overlaps any solid tiles. Touching the edge of a tile doesn't count, nor does
+     * overlapping it by less than {@link #COLLISION_EPSILON}
+     *
+     * @param left   the left edge of the area
+     * @param top    the top edge of the area
+     * @param right  the right edge of the area
+     * @param bottom the bottom edge of the area
+     * @return whether any solid tiles are overlapped
+     */
+    public boolean overlapsSolid(float left, float top, float right, float bottom) {
+        int minColumn = (int) Math.floor((left + COLLISION_EPSILON) / GridUtils.TILE_WIDTH);
+        int maxColumn = (int) Math.ceil((right - COLLISION_EPSILON) / GridUtils.TILE_WIDTH) - 1;
+        int minRow = (int) Math.floor((top + COLLISION_EPSILON) / GridUtils.TILE_HEIGHT);
+        int maxRow = (int) Math.ceil((bottom - COLLISION_EPSILON) / GridUtils.TILE_HEIGHT) - 1;
+
+        //only sweep the part of the area which is within the grid
+        minColumn = Math.max(minColumn, 0);
+        maxColumn = Math.min(maxColumn, columns - 1);
+        minRow = Math.max(minRow, 0);
+        maxRow = Math.min(maxRow, rows - 1);
+
+        return anySolid(minColumn, maxColumn, minRow, maxRow);
+    }
+
+    /**
+     * Works out how far the specified area can move horizontally before it hits a solid tile. Tiles the area already
+     * overlaps are ignored, so anything stuck inside the terrain can get back out
+     *
+     * @param left   the left edge of the area
+     * @param top    the top edge of the area
+     * @param right  the right edge of the area
+     * @param bottom the bottom edge of the area
+     * @param dx     how far to move the area
+     * @return how far the area can move, which is dx if it doesn't hit anything
+     */
+    public float sweepX(float left, float top, float right, float bottom, float dx) {
+        int minRow = Math.max(0, (int) Math.floor((top + COLLISION_EPSILON) / GridUtils.TILE_HEIGHT));
+        int maxRow = Math.min(rows - 1, (int) Math.ceil((bottom - COLLISION_EPSILON) / GridUtils.TILE_HEIGHT) - 1);
+
+        if (dx > 0) {
+            //check each column whose left edge the area's right edge passes, nearest first
+            int first = Math.max(0, (int) Math.ceil((right - COLLISION_EPSILON) / GridUtils.TILE_WIDTH));
+            int last = Math.min(columns - 1, (int) Math.ceil((right + dx) / GridUtils.TILE_WIDTH) - 1);
+
+            for (int column = first; column <= last; column++) {
+                if (anySolid(column, column, minRow, maxRow)) return column * GridUtils.TILE_WIDTH - right;
+            }
+        } else if (dx < 0) {
+            int first = Math.min(columns - 1, (int) Math.floor((left + COLLISION_EPSILON) / GridUtils.TILE_WIDTH) - 1);
+            int last = Math.max(0, (int) Math.floor((left + dx) / GridUtils.TILE_WIDTH));
+
+            for (int column = first; column >= last; column--) {
+                if (anySolid(column, column, minRow, maxRow)) return (column + 1) * GridUtils.TILE_WIDTH - left;
+            }
+        }
+
+        return dx;
+    }
+
+    /**
+     * Works out how far the specified area can move vertically before it hits a solid tile. Tiles the area already
+     * overlaps are ignored, so anything stuck inside the terrain can get back out
+     *
+     * @param left   the left edge of the area
+     * @param top    the top edge of the area
+     * @param right  the right edge of the area
+     * @param bottom the bottom edge of the area
+     * @param dy     how far to move the area
+     * @return how far the area can move, which is dy if it doesn't hit anything
+     */
+    public float sweepY(float left, float top, float right, float bottom, float dy) {
+        int minColumn = Math.max(0, (int) Math.floor((left + COLLISION_EPSILON) / GridUtils.TILE_WIDTH));
+        int maxColumn = Math.min(columns - 1, (int) Math.ceil((right - COLLISION_EPSILON) / GridUtils.TILE_WIDTH) - 1);
+
+        if (dy > 0) {
+            //check each row whose top edge the area's bottom edge passes, nearest first
+            int first = Math.max(0, (int) Math.ceil((bottom - COLLISION_EPSILON) / GridUtils.TILE_HEIGHT));
+            int last = Math.min(rows - 1, (int) Math.ceil((bottom + dy) / GridUtils.TILE_HEIGHT) - 1);
+
+            for (int row = first; row <= last; row++) {
+                if (anySolid(minColumn, maxColumn, row, row)) return row * GridUtils.TILE_HEIGHT - bottom;
+            }
+        } else if (dy < 0) {
+            int first = Math.min(rows - 1, (int) Math.floor((top + COLLISION_EPSILON) / GridUtils.TILE_HEIGHT) - 1);
+            int last = Math.max(0, (int) Math.floor((top + dy) / GridUtils.TILE_HEIGHT));
+
+            for (int row = first; row >= last; row--) {
+                if (anySolid(minColumn, maxColumn, row, row)) return (row + 1) * GridUtils.TILE_HEIGHT - top;
+            }
+        }
+
+        return dy;
+    }
+
+    /**
+     * @return whether any of the tiles in the specified range, which must be within the grid, are solid
+     */
+    private boolean anySolid(int minColumn, int maxColumn, int minRow, int maxRow) {
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                if ((FLAGS[tiles[row * columns + column]] & SOLID) != 0) return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public void update(float delta) {
+        Player player = screen.getPlayer();
+        if (player == null || !player.hasHitbox()) return;
+
+        int minColumn = Math.max(0, (int) Math.floor(player.getHitboxLeft() / GridUtils.TILE_WIDTH));
+        int maxColumn = Math.min(columns - 1, (int) Math.floor((player.getHitboxRight() + HAZARD_REACH) / GridUtils.TILE_WIDTH));
+        int minRow = Math.max(0, (int) Math.floor(player.getHitboxTop() / GridUtils.TILE_HEIGHT));
+        int maxRow = Math.min(rows - 1, (int) Math.floor((player.getHitboxBottom() + HAZARD_REACH) / GridUtils.TILE_HEIGHT));
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                if (!isHazard(column, row)) continue;
+
+                float left = column * GridUtils.TILE_WIDTH - HAZARD_REACH;
+                float top = row * GridUtils.TILE_HEIGHT - HAZARD_REACH;
+                float right = (column + 1) * GridUtils.TILE_WIDTH;
+                float bottom = (row + 1) * GridUtils.TILE_HEIGHT;
+
+                //the player may have respawned from earlier damage, so check against where they are now
+                if (left < player.getHitboxRight() && player.getHitboxLeft() < right && top < player.getHitboxBottom()
+                        && player.getHitboxTop() < bottom) {
+                    player.dealDamage(1); //damage the player if they contact the spikes
+                }
+            }
+        }
+    }
+
+    /**
+     * @param renderStates the render states the terrain is being drawn with
+     * @return the render states to draw the vertex array with, using the tile texture
+     */
+    private RenderStates getTileStates(RenderStates renderStates) {
+        return new RenderStates(renderStates.blendMode, renderStates.transform, TILE_TEXTURE, renderStates.shader);
+    }
+
+    @Override
+    public void draw(RenderTarget renderTarget, RenderStates renderStates) {
+        vertices.draw(renderTarget, getTileStates(renderStates));
+    }
+
+    @Override
+    public void snapshot(FrameSnapshot snapshot) {
+        snapshot.addFixed(vertices, getTileStates(RenderStates.DEFAULT));
+    }
+}
@@ -2,7 +2,7 @@ package hashpizza.game.engine.platforming.abilities;
 
 import hashpizza.game.engine.platforming.LevelScreen;
 import hashpizza.game.engine.platforming.Player;
-import hashpizza.game.engine.util.DeltaTimer;
+import hashpizza.game.engine.util.TimerWheel;
 import org.jsfml.graphics.Color;
 import org.jsfml.graphics.ConstTexture;
 
@@ -44,7 +44,7 @@ public abstract class Ability {
     /**
      * Cooldown between using the ability multiple times
      */
-    private DeltaTimer cooldownTimer;
+    private TimerWheel.Timer cooldownTimer;
 
     /**
      * Creates an ability for the specified parameters
@@ -129,7 +129,7 @@ public abstract class Ability {
     /**
      * @return the cooldown until the ability can be used next
      */
-    public DeltaTimer getCooldownTimer() {
+    public TimerWheel.Timer getCooldownTimer() {
         return cooldownTimer;
     }
 
@@ -145,7 +145,17 @@ public abstract class Ability {
      * Sets the cooldown for the next ability usage
      * @param cooldownTimer the cooldown
      */
-    public void setCooldownTimer(DeltaTimer cooldownTimer) {
+    public void setCooldownTimer(TimerWheel.Timer cooldownTimer) {
         this.cooldownTimer = cooldownTimer;
     }
+
+    /**
+     * Starts the cooldown for the next ability usage, in the level's game time
+     *
+     * @param level    the level active
+     * @param duration the length of the cooldown in seconds
+     */
+    public void startCooldown(LevelScreen level, float duration) {
+        setCooldownTimer(level.getTimers().schedule(duration, null));
+    }
 }
@@ -42,16 +42,7 @@ public class AbilityManager implements GameObject, KeyHandler {
 
     @Override
     public void update(float delta) {
-        //update cooldown timers for all slots
-        for (AbilitySlot as : selectedAbilities) {
-            if (as.getAbility() != null) {
-                Ability a = as.getAbility().getAbility();
-
-                if (a != null && a.getCooldownTimer() != null) {
-                    a.getCooldownTimer().update(delta);
-                }
-            }
-        }
+        //cooldowns run on the level's timers, so there's nothing to update
     }
 
     @Override
@@ -2,7 +2,6 @@ package hashpizza.game.engine.platforming.abilities;
 
 import hashpizza.game.engine.platforming.LevelScreen;
 import hashpizza.game.engine.platforming.Player;
-import hashpizza.game.engine.util.DeltaTimer;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.Color;
 
@@ -24,6 +23,6 @@ public class BowlandBowAbility extends Ability {
     public void onKeyRelease(LevelScreen level, Player player) {
         player.stopDrawingBow();
 
-        setCooldownTimer(new DeltaTimer(3f));
+        startCooldown(level, 3f);
     }
 }
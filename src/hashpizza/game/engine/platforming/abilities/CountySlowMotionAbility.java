@@ -2,7 +2,6 @@ package hashpizza.game.engine.platforming.abilities;
 
 import hashpizza.game.engine.platforming.LevelScreen;
 import hashpizza.game.engine.platforming.Player;
-import hashpizza.game.engine.util.DeltaTimer;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.Color;
 
@@ -17,7 +16,7 @@ public class CountySlowMotionAbility extends Ability {
 
     @Override
     public void onActivate(LevelScreen level, Player player) {
-        level.setSlowMotionTimer(new DeltaTimer(3f));
-        setCooldownTimer(new DeltaTimer(5));
+        level.startSlowMotion(3f);
+        startCooldown(level, 5);
     }
 }
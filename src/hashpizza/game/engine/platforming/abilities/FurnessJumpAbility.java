@@ -2,7 +2,6 @@ package hashpizza.game.engine.platforming.abilities;
 
 import hashpizza.game.engine.platforming.LevelScreen;
 import hashpizza.game.engine.platforming.Player;
-import hashpizza.game.engine.util.DeltaTimer;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.Color;
 
@@ -27,6 +26,6 @@ public class FurnessJumpAbility extends Ability {
 
         player.setDoubleJumping(false);
 
-        setCooldownTimer(new DeltaTimer(3));
+        startCooldown(level, 3);
     }
 }
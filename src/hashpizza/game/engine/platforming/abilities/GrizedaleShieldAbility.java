@@ -2,7 +2,6 @@ package hashpizza.game.engine.platforming.abilities;
 
 import hashpizza.game.engine.platforming.LevelScreen;
 import hashpizza.game.engine.platforming.Player;
-import hashpizza.game.engine.util.DeltaTimer;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.Color;
 
@@ -20,6 +19,6 @@ public class GrizedaleShieldAbility extends Ability {
     public void onActivate(LevelScreen level, Player player) {
         player.useShield();
 
-        setCooldownTimer(new DeltaTimer(10f));
+        startCooldown(level, 10f);
     }
 }
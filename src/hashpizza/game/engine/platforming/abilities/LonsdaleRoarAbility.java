@@ -2,7 +2,6 @@ package hashpizza.game.engine.platforming.abilities;
 
 import hashpizza.game.engine.platforming.LevelScreen;
 import hashpizza.game.engine.platforming.Player;
-import hashpizza.game.engine.util.DeltaTimer;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.Color;
 
@@ -18,6 +17,6 @@ public class LonsdaleRoarAbility extends Ability {
     @Override
     public void onActivate(LevelScreen level, Player player) {
         player.roar();
-        setCooldownTimer(new DeltaTimer(20f));
+        startCooldown(level, 20f);
     }
 }
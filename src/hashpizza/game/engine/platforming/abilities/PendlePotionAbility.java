@@ -2,7 +2,6 @@ package hashpizza.game.engine.platforming.abilities;
 
 import hashpizza.game.engine.platforming.LevelScreen;
 import hashpizza.game.engine.platforming.Player;
-import hashpizza.game.engine.util.DeltaTimer;
 import hashpizza.game.engine.util.Textures;
 import org.jsfml.graphics.Color;
 
@@ -21,7 +20,7 @@ public class PendlePotionAbility extends Ability {
     }
 
     public void onKeyRelease(LevelScreen level, Player player) {
-        setCooldownTimer(new DeltaTimer(3f));
+        startCooldown(level, 3f);
     }
 
 }
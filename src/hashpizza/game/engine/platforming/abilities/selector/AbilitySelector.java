@@ -1,7 +1,10 @@
 package hashpizza.game.engine.platforming.abilities.selector;
 
 import hashpizza.game.engine.GameObject;
+import hashpizza.game.engine.GameSprite;
+import hashpizza.game.engine.GameText;
 import hashpizza.game.engine.KeyHandler;
+import hashpizza.game.engine.RenderLayer;
 import hashpizza.game.engine.platforming.LevelScreen;
 import hashpizza.game.engine.platforming.abilities.Abilities;
 import hashpizza.game.engine.platforming.abilities.Ability;
@@ -41,12 +44,12 @@ public class AbilitySelector implements GameObject, KeyHandler {
     /**
      * The image displaying the prompt of the 1, 2, 3 keys
      */
-    private Sprite keyPromptImage;
+    private GameSprite keyPromptImage;
 
     /**
      * Darkens the background when the ability selector is active
      */
-    private Sprite backgroundDarken;
+    private GameSprite backgroundDarken;
 
     /**
      * Bubble to display above currently hovered ability
@@ -61,12 +64,12 @@ public class AbilitySelector implements GameObject, KeyHandler {
     /**
      * The title of the ability
      */
-    private Text selectorTitle;
+    private GameText selectorTitle;
 
     /**
      * The 'press space to continue' prompt
      */
-    private Text selectorContinue;
+    private GameText selectorContinue;
 
     /**
      * The currently selected slot
@@ -107,7 +110,7 @@ public class AbilitySelector implements GameObject, KeyHandler {
 
         this.forcedLevelAbility = forcedLevelAbility;
 
-        selectorTitle = new Text();
+        selectorTitle = new GameText();
         selectorTitle.setFont(Fonts.MEDIEVAL);
         selectorTitle.setString("Select your abilities");
         selectorTitle.setCharacterSize(60);
@@ -115,7 +118,7 @@ public class AbilitySelector implements GameObject, KeyHandler {
         selectorTitle.setOrigin(selectorTitle.getLocalBounds().width * 0.5f, selectorTitle.getLocalBounds().height * 0.5f);
         selectorTitle.setPosition(GridUtils.SCREEN_WIDTH * 0.5f, 100);
 
-        selectorContinue = new Text();
+        selectorContinue = new GameText();
         selectorContinue.setFont(Fonts.PIXEL);
         selectorContinue.setString("Press space to start");
         selectorContinue.setCharacterSize(38);
@@ -184,8 +187,8 @@ public class AbilitySelector implements GameObject, KeyHandler {
             hoverTitle.setPosition(new Vector2f(-500, -500));
         }
 
-        keyPromptImage = new Sprite(TEXTURE_KEY_PROMPT);
-        backgroundDarken = new Sprite(TEXTURE_VIGNETTE); //darken background whilst the ability selector is active
+        keyPromptImage = new GameSprite(null, TEXTURE_KEY_PROMPT);
+        backgroundDarken = new GameSprite(null, TEXTURE_VIGNETTE); //darken background whilst the ability selector is active
     }
 
     /**
@@ -214,13 +217,13 @@ public class AbilitySelector implements GameObject, KeyHandler {
 
                 if (keyPromptLife >= 10f) {
                     float opacity = keyPromptFadeAnimation.update(delta);
-                    keyPromptImage.setColor(new Color(255, 255, 255, (int) opacity));
+                    SpriteStates.setAlpha(keyPromptImage, (int) opacity);
                 }
             }
 
             if (!backgroundDarkenFadeAnimation.isComplete()) {
                 float opacity = backgroundDarkenFadeAnimation.update(delta);
-                backgroundDarken.setColor(new Color(255, 255, 255, (int) opacity));
+                SpriteStates.setAlpha(backgroundDarken, (int) opacity);
             }
         }
 
@@ -374,4 +377,9 @@ public class AbilitySelector implements GameObject, KeyHandler {
     public void onKeyPress(Keyboard.Key key) {
 
     }
+
+    @Override
+    public RenderLayer getLayer() {
+        return RenderLayer.HUD;
+    }
 }
@@ -1,6 +1,8 @@
 package hashpizza.game.engine.platforming.abilities.selector;
 
 import hashpizza.game.engine.GameObject;
+import hashpizza.game.engine.GameSprite;
+import hashpizza.game.engine.GameText;
 import hashpizza.game.engine.util.Animation;
 import hashpizza.game.engine.util.Animations;
 import hashpizza.game.engine.util.Fonts;
@@ -25,7 +27,7 @@ public class AbilitySlot implements GameObject {
     /**
      * The background slot sprite
      */
-    private Sprite slotSprite;
+    private GameSprite slotSprite;
 
     /**
      * The ability contained within this slot
@@ -35,7 +37,7 @@ public class AbilitySlot implements GameObject {
     /**
      * Text overlaid on the slot if the ability is in cooldown
      */
-    private Text cooldownText;
+    private GameText cooldownText;
 
     /**
      * Whether this slot is currently selected whilst the ability selector is active
@@ -61,11 +63,11 @@ public class AbilitySlot implements GameObject {
         this.scale = scale;
         this.ability = ability;
 
-        slotSprite = new Sprite(texture);
+        slotSprite = new GameSprite(null, texture);
         slotSprite.setOrigin(slotSprite.getLocalBounds().width * 0.5f, slotSprite.getLocalBounds().height * 0.5f);
         slotSprite.setPosition(position);
 
-        cooldownText = new Text("", Fonts.PIXEL);
+        cooldownText = new GameText("", Fonts.PIXEL);
         cooldownText.setOrigin(cooldownText.getLocalBounds().width * 0.5f, cooldownText.getLocalBounds().height * 0.75f);
         cooldownText.setPosition(Vector2f.add(position, slotSprite.getOrigin()));
     }
@@ -96,7 +98,7 @@ public class AbilitySlot implements GameObject {
     /**
      * @return the slot ability slot, if an ability is in its slot
      */
-    public Sprite getSlotSprite() {
+    public GameSprite getSlotSprite() {
         return slotSprite;
     }
 
@@ -1,6 +1,8 @@
 package hashpizza.game.engine.platforming.abilities.selector;
 
 import hashpizza.game.engine.GameObject;
+import hashpizza.game.engine.GameSprite;
+import hashpizza.game.engine.GameText;
 import hashpizza.game.engine.platforming.abilities.Ability;
 import hashpizza.game.engine.util.Animation;
 import hashpizza.game.engine.util.Animations;
@@ -27,17 +29,17 @@ public class NewAbilityTitle implements GameObject {
     /**
      * The ability name
      */
-    private Text abilityTitle;
+    private GameText abilityTitle;
 
     /**
      * The ability description
      */
-    private Text abilityDescription;
+    private GameText abilityDescription;
 
     /**
      * The bubble background sprite
      */
-    private Sprite bubble;
+    private GameSprite bubble;
 
     /**
      * The position of the bubble
@@ -55,17 +57,17 @@ public class NewAbilityTitle implements GameObject {
      */
     public NewAbilityTitle() {
 
-        abilityTitle = new Text();
+        abilityTitle = new GameText();
         abilityTitle.setFont(Fonts.MEDIEVAL);
         abilityTitle.setColor(Color.WHITE);
         abilityTitle.setCharacterSize(22);
 
-        abilityDescription = new Text();
+        abilityDescription = new GameText();
         abilityDescription.setFont(Fonts.PIXEL);
         abilityDescription.setColor(Color.WHITE);
         abilityDescription.setCharacterSize(15);
 
-        bubble = new Sprite(TEXTURE_ABILITY_BUBBLE);
+        bubble = new GameSprite(null, TEXTURE_ABILITY_BUBBLE);
     }
 
     /**
@@ -1,6 +1,8 @@
 package hashpizza.game.engine.platforming.abilities.selector;
 
 import hashpizza.game.engine.GameObject;
+import hashpizza.game.engine.GameSprite;
+import hashpizza.game.engine.GameText;
 import hashpizza.game.engine.platforming.abilities.Ability;
 import hashpizza.game.engine.util.Animation;
 import hashpizza.game.engine.util.Animations;
@@ -22,17 +24,17 @@ public class SelectedAbilityHoverTitle implements GameObject {
     /**
      * The ability name
      */
-    private Text abilityTitle;
+    private GameText abilityTitle;
 
     /**
      * The ability description
      */
-    private Text abilityDescription;
+    private GameText abilityDescription;
 
     /**
      * Bubble sprite
      */
-    private Sprite bubble;
+    private GameSprite bubble;
 
     /**
      * The position of the bubble
@@ -50,16 +52,16 @@ public class SelectedAbilityHoverTitle implements GameObject {
      */
     public SelectedAbilityHoverTitle() {
 
-        abilityTitle = new Text();
+        abilityTitle = new GameText();
         abilityTitle.setFont(Fonts.MEDIEVAL);
         abilityTitle.setColor(Color.WHITE);
 
-        abilityDescription = new Text();
+        abilityDescription = new GameText();
         abilityDescription.setFont(Fonts.PIXEL);
         abilityDescription.setColor(Color.WHITE);
         abilityDescription.setCharacterSize(18);
 
-        bubble = new Sprite(TEXTURE_ABILITY_BUBBLE);
+        bubble = new GameSprite(null, TEXTURE_ABILITY_BUBBLE);
     }
 
     /**
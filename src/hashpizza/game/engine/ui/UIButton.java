@@ -4,6 +4,7 @@ import hashpizza.game.engine.GameObject;
 import hashpizza.game.engine.util.Animation;
 import hashpizza.game.engine.util.Animations;
 import hashpizza.game.engine.util.Fonts;
+import hashpizza.game.engine.util.SpriteStates;
 import org.jsfml.graphics.Text;
 import org.jsfml.graphics.*;
 import org.jsfml.system.Vector2f;
@@ -81,7 +82,7 @@ public class UIButton implements GameObject {
     public void update(float delta) {
         if (state == ButtonState.HOVER) {
             float anim = colourAnim.update(delta);
-            buttonSelectionOutline.setOutlineColor(new Color(state.colour.r, state.colour.g, state.colour.b, (int) anim));
+            SpriteStates.setOutlineColor(buttonSelectionOutline, state.colour, (int) anim);
         }
     }
 
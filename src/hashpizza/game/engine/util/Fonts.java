@@ -1,31 +1,44 @@
 package hashpizza.game.engine.util;
 
+import hashpizza.game.engine.GameWindow;
 import org.jsfml.graphics.Font;
 
 import java.io.IOException;
 import java.nio.file.Paths;
 
 /**
- * Utility class to allow access to the game's fonts
+ * Utility class to allow access to the game's fonts. In a headless process the fonts are null, since nothing is drawn
+ * and loading them into JSFML would need a display
  */
 public final class Fonts {
 
     /**
      * Pixel-art font file, used for subtitles etc.
      */
-    public static final Font PIXEL = new Font();
+    public static final Font PIXEL = loadFont("./res/Pixellari.ttf");
 
     /**
      * Medieval font file, used for titles etc.
      */
-    public static final Font MEDIEVAL = new Font();
+    public static final Font MEDIEVAL = loadFont("./res/euphorigenic.ttf");
+
+    /**
+     * Loads a font from the specified path
+     *
+     * @param path the path to load the font from
+     * @return the font, which is empty if it can't be loaded, or null in a headless process
+     */
+    private static Font loadFont(String path) {
+        if (GameWindow.isHeadlessProcess()) return null;
+
+        Font font = new Font();
 
-    static {
         try {
-            PIXEL.loadFromFile(Paths.get("./res/Pixellari.ttf"));
-            MEDIEVAL.loadFromFile(Paths.get("./res/euphorigenic.ttf"));
+            font.loadFromFile(Paths.get(path));
         } catch (IOException ex) {
             ex.printStackTrace();
         }
+
+        return font;
     }
 }
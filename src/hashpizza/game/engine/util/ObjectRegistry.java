@@ -0,0 +1,87 @@
+package hashpizza.game.engine.util;
+
+import java.util.*;
+
+/**
+ * An unordered collection of objects which supports adding and removing in constant time, used by screens to keep
+ * track of the objects with a particular capability (e.g. key handlers or enemies) without filtering every object.
+ * Objects are compared by identity, and removing an object moves the last object into its place
+ *
+ * @param <T> the type of object in the registry
+ */
+public class ObjectRegistry<T> {
+
+    /**
+     * The objects in the registry
+     */
+    private final List<T> objects = new ArrayList<>();
+
+    /**
+     * Read-only view of the objects, handed out to avoid copying the list
+     */
+    private final List<T> view = Collections.unmodifiableList(objects);
+
+    /**
+     * The index of each object within the list
+     */
+    private final Map<T, Integer> indices = new IdentityHashMap<>();
+
+    /**
+     * Adds an object to the registry, if it isn't already in it
+     *
+     * @param obj the object to add
+     */
+    public void add(T obj) {
+        if (indices.putIfAbsent(obj, objects.size()) == null) objects.add(obj);
+    }
+
+    /**
+     * Removes an object from the registry. Does nothing if the object isn't in it
+     *
+     * @param obj the object to remove
+     */
+    public void remove(T obj) {
+        Integer index = indices.remove(obj);
+        if (index == null) return;
+
+        //move the last object into the removed object's place
+        T last = objects.remove(objects.size() - 1);
+        if (last != obj) {
+            objects.set(index, last);
+            indices.put(last, index);
+        }
+    }
+
+    /**
+     * @param obj the object to check
+     * @return whether the object is in the registry
+     */
+    public boolean contains(T obj) {
+        return indices.containsKey(obj);
+    }
+
+    /**
+     * @return the number of objects in the registry
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * @param index the index of the object, between 0 and the registry's size
+     * @return the object at the index
+     */
+    public T get(int index) {
+        return objects.get(index);
+    }
+
+    /**
+     * Gets the objects in the registry. The returned list is a read-only view which changes as objects are added and
+     * removed, in no particular order
+     *
+     * @return the objects in the registry
+     */
+    public List<T> asList() {
+        return view;
+    }
+}
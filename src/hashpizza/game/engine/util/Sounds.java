@@ -1,5 +1,7 @@
 package hashpizza.game.engine.util;
 
+import hashpizza.game.engine.GameScreen;
+import hashpizza.game.engine.GameWindow;
 import org.jsfml.audio.Music;
 import org.jsfml.audio.Sound;
 import org.jsfml.audio.SoundBuffer;
@@ -16,9 +18,11 @@ public final class Sounds {
      * Loads a sound from the specified path
      *
      * @param path the path to load the sound from
-     * @return the sound from the specified path, or null if it can't be found
+     * @return the sound from the specified path, or null in a headless process, which never plays it
      */
     public static Sound getSound(String path) {
+        if (GameWindow.isHeadlessProcess()) return null;
+
         try {
             SoundBuffer soundBuffer = new SoundBuffer();
             soundBuffer.loadFromFile(Paths.get(path)); //load the sound into the buffer
@@ -31,13 +35,25 @@ public final class Sounds {
         }
     }
 
+    /**
+     * Plays a sound, unless the screen it is played from is in a headless window, which doesn't play audio
+     *
+     * @param screen the screen playing the sound
+     * @param sound  the sound to play
+     */
+    public static void play(GameScreen screen, Sound sound) {
+        if (!screen.getWindow().isHeadless()) sound.play();
+    }
+
     /**
      * Loads a music file from the specified path. It will be set to loop by default
      *
      * @param path the path to load the music from
-     * @return the music from the specified path, or null if it can't be found
+     * @return the music from the specified path, or null if it can't be found or this is a headless process
      */
     public static Music getMusic(String path) {
+        if (GameWindow.isHeadlessProcess()) return null;
+
         try {
             Music music = new Music();
             music.openFromFile(Path.of(path));
@@ -52,6 +68,8 @@ public final class Sounds {
         }
     }
     public static Music getMusic(String path, boolean doesLoop) {
+        if (GameWindow.isHeadlessProcess()) return null;
+
         try {
             Music music = new Music();
             music.openFromFile(Path.of(path));
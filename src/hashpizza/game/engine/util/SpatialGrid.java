@@ -0,0 +1,303 @@
+package hashpizza.game.engine.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A uniform grid which buckets rectangles by the cells they overlap, so that finding the rectangles overlapping an
+ * area only needs to look at the few cells around it rather than every rectangle. The grid covers a fixed area, and
+ * anything outside of it is kept in the nearest cell along the edge, so rectangles can safely move off the grid
+ *
+ * @param <T> the type of object stored in the grid
+ */
+public class SpatialGrid<T> {
+
+    /**
+     * The position of the top left corner of the grid
+     */
+    private final float left, top;
+
+    /**
+     * The size of each cell
+     */
+    private final float cellWidth, cellHeight;
+
+    /**
+     * The number of cells across and down the grid
+     */
+    private final int columns, rows;
+
+    /**
+     * The nodes overlapping each cell, stored row by row
+     */
+    private final List<List<Node<T>>> cells;
+
+    /**
+     * Incremented for every query, so that nodes spanning several cells are only returned once
+     */
+    private int queryStamp = 0;
+
+    /**
+     * Creates an empty grid
+     *
+     * @param left       the x position of the left edge of the grid
+     * @param top        the y position of the top edge of the grid
+     * @param columns    the number of cells across the grid
+     * @param rows       the number of cells down the grid
+     * @param cellWidth  the width of each cell
+     * @param cellHeight the height of each cell
+     */
+    public SpatialGrid(float left, float top, int columns, int rows, float cellWidth, float cellHeight) {
+        this.left = left;
+        this.top = top;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+
+        cells = new ArrayList<>(columns * rows);
+
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Creates an empty grid of tiles covering one screen plus a tile around it, the size of each level screen's
+     * collision grid
+     *
+     * @param <T> the type of object stored in the grid
+     * @return the new grid
+     */
+    public static <T> SpatialGrid<T> forScreen() {
+        return new SpatialGrid<>(-GridUtils.TILE_WIDTH, -GridUtils.TILE_HEIGHT, GridUtils.X_TILES_PER_SCREEN + 2,
+                GridUtils.Y_TILES_PER_SCREEN + 2, GridUtils.TILE_WIDTH, GridUtils.TILE_HEIGHT);
+    }
+
+    /**
+     * Adds a rectangle to the grid
+     *
+     * @param item   the object the rectangle belongs to
+     * @param left   the left edge of the rectangle
+     * @param top    the top edge of the rectangle
+     * @param right  the right edge of the rectangle
+     * @param bottom the bottom edge of the rectangle
+     * @return the node for the rectangle, used to move or remove it
+     */
+    public Node<T> insert(T item, float left, float top, float right, float bottom) {
+        Node<T> node = new Node<>(item);
+
+        setBounds(node, left, top, right, bottom);
+        addToCells(node);
+
+        return node;
+    }
+
+    /**
+     * Moves a rectangle within the grid. Only touches the cells if the rectangle has moved into different ones
+     *
+     * @param node   the node returned when the rectangle was inserted
+     * @param left   the new left edge of the rectangle
+     * @param top    the new top edge of the rectangle
+     * @param right  the new right edge of the rectangle
+     * @param bottom the new bottom edge of the rectangle
+     */
+    public void move(Node<T> node, float left, float top, float right, float bottom) {
+        if (!node.inGrid) return;
+
+        int minColumn = node.minColumn, minRow = node.minRow, maxColumn = node.maxColumn, maxRow = node.maxRow;
+
+        setBounds(node, left, top, right, bottom);
+
+        if (node.minColumn == minColumn && node.minRow == minRow && node.maxColumn == maxColumn && node.maxRow == maxRow)
+            return; //still in the same cells
+
+        removeFromCells(node, minColumn, minRow, maxColumn, maxRow);
+        addToCells(node);
+    }
+
+    /**
+     * Removes a rectangle from the grid
+     *
+     * @param node the node returned when the rectangle was inserted
+     */
+    public void remove(Node<T> node) {
+        if (!node.inGrid) return;
+
+        removeFromCells(node, node.minColumn, node.minRow, node.maxColumn, node.maxRow);
+        node.inGrid = false;
+    }
+
+    /**
+     * Sets the layers a rectangle belongs to, as a bitmask. Rectangles are in every layer when first inserted
+     *
+     * @param node   the node returned when the rectangle was inserted
+     * @param layers the layers the rectangle belongs to
+     */
+    public void setLayers(Node<T> node, int layers) {
+        node.layers = layers;
+    }
+
+    /**
+     * Finds all of the rectangles which overlap the specified area. Rectangles which only touch the edge of the
+     * area don't count as overlapping
+     *
+     * @param left   the left edge of the area
+     * @param top    the top edge of the area
+     * @param right  the right edge of the area
+     * @param bottom the bottom edge of the area
+     * @param out    the list to add the objects of the overlapping rectangles to
+     */
+    public void query(float left, float top, float right, float bottom, List<T> out) {
+        query(left, top, right, bottom, ~0, out);
+    }
+
+    /**
+     * Finds all of the rectangles in any of the specified layers which overlap the specified area. Rectangles which
+     * only touch the edge of the area don't count as overlapping
+     *
+     * @param left   the left edge of the area
+     * @param top    the top edge of the area
+     * @param right  the right edge of the area
+     * @param bottom the bottom edge of the area
+     * @param layers the layers to look in, as a bitmask
+     * @param out    the list to add the objects of the overlapping rectangles to
+     */
+    public void query(float left, float top, float right, float bottom, int layers, List<T> out) {
+        int stamp = ++queryStamp;
+
+        int minColumn = column(left), maxColumn = column(right);
+        int minRow = row(top), maxRow = row(bottom);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                List<Node<T>> cell = cells.get(row * columns + column);
+
+                for (int i = 0; i < cell.size(); i++) {
+                    Node<T> node = cell.get(i);
+                    if (node.queryStamp == stamp) continue; //already checked in another cell
+
+                    node.queryStamp = stamp;
+
+                    if ((node.layers & layers) != 0 && node.left < right && left < node.right && node.top < bottom && top < node.bottom) {
+                        out.add(node.item);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the bounds of a node and works out which cells it covers
+     */
+    private void setBounds(Node<T> node, float left, float top, float right, float bottom) {
+        node.left = left;
+        node.top = top;
+        node.right = right;
+        node.bottom = bottom;
+
+        node.minColumn = column(left);
+        node.maxColumn = column(right);
+        node.minRow = row(top);
+        node.maxRow = row(bottom);
+    }
+
+    /**
+     * Adds a node to all of the cells it covers
+     */
+    private void addToCells(Node<T> node) {
+        for (int row = node.minRow; row <= node.maxRow; row++) {
+            for (int column = node.minColumn; column <= node.maxColumn; column++) {
+                cells.get(row * columns + column).add(node);
+            }
+        }
+
+        node.inGrid = true;
+    }
+
+    /**
+     * Removes a node from the specified range of cells
+     */
+    private void removeFromCells(Node<T> node, int minColumn, int minRow, int maxColumn, int maxRow) {
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                List<Node<T>> cell = cells.get(row * columns + column);
+
+                for (int i = 0; i < cell.size(); i++) {
+                    if (cell.get(i) == node) {
+                        //move the last node into the removed node's place
+                        Node<T> last = cell.remove(cell.size() - 1);
+                        if (last != node) cell.set(i, last);
+
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param x the x position
+     * @return the column containing the x position, clamped to the grid
+     */
+    private int column(float x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((x - left) / cellWidth)));
+    }
+
+    /**
+     * @param y the y position
+     * @return the row containing the y position, clamped to the grid
+     */
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - top) / cellHeight)));
+    }
+
+    /**
+     * A rectangle stored in the grid
+     *
+     * @param <T> the type of object the rectangle belongs to
+     */
+    public static class Node<T> {
+
+        /**
+         * The object the rectangle belongs to
+         */
+        private final T item;
+
+        /**
+         * The bounds of the rectangle
+         */
+        private float left, top, right, bottom;
+
+        /**
+         * The range of cells the rectangle covers
+         */
+        private int minColumn, minRow, maxColumn, maxRow;
+
+        /**
+         * The layers the rectangle belongs to
+         */
+        private int layers = ~0;
+
+        /**
+         * The last query which checked this node
+         */
+        private int queryStamp;
+
+        /**
+         * Whether the node is still in the grid
+         */
+        private boolean inGrid;
+
+        private Node(T item) {
+            this.item = item;
+        }
+
+        /**
+         * @return the object the rectangle belongs to
+         */
+        public T getItem() {
+            return item;
+        }
+    }
+}
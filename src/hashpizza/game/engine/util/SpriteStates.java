@@ -0,0 +1,75 @@
+package hashpizza.game.engine.util;
+
+import hashpizza.game.engine.GameSprite;
+import org.jsfml.graphics.Color;
+import org.jsfml.graphics.Shape;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Static utilities for changing how JSFML objects are drawn only when the new value is different. Every setter on a
+ * JSFML sprite or shape crosses into native code, even if it sets the value it already has, so objects which are
+ * updated every frame should go through here (game sprites do so automatically)
+ */
+public final class SpriteStates {
+
+    /**
+     * The number of native calls skipped since the count was last taken
+     */
+    private static final AtomicInteger skippedCalls = new AtomicInteger();
+
+    private SpriteStates() {
+
+    }
+
+    /**
+     * Records that a native call was skipped because it wouldn't have changed anything
+     */
+    public static void countSkippedCall() {
+        skippedCalls.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of native calls skipped since this was last called, e.g. once per frame
+     *
+     * @return the number of calls skipped
+     */
+    public static int takeSkippedCalls() {
+        return skippedCalls.getAndSet(0);
+    }
+
+    /**
+     * Sets the opacity of a sprite, keeping its colour
+     *
+     * @param sprite the sprite
+     * @param alpha  the opacity, from 0 to 255
+     */
+    public static void setAlpha(GameSprite sprite, int alpha) {
+        Color colour = sprite.getColor();
+
+        if (colour.a == alpha) {
+            countSkippedCall();
+            return;
+        }
+
+        sprite.setColor(new Color(colour.r, colour.g, colour.b, alpha));
+    }
+
+    /**
+     * Sets the outline colour of a shape
+     *
+     * @param shape  the shape
+     * @param colour the colour, ignoring its opacity
+     * @param alpha  the opacity, from 0 to 255
+     */
+    public static void setOutlineColor(Shape shape, Color colour, int alpha) {
+        Color current = shape.getOutlineColor();
+
+        if (current.r == colour.r && current.g == colour.g && current.b == colour.b && current.a == alpha) {
+            countSkippedCall();
+            return;
+        }
+
+        shape.setOutlineColor(new Color(colour.r, colour.g, colour.b, alpha));
+    }
+}
@@ -0,0 +1,168 @@
+package hashpizza.game.engine.util;
+
+import org.jsfml.graphics.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs small textures into a few large page textures, so that sprites using different textures can be drawn together
+ * in one batch. Textures are packed in rows (shelves) as they are added, moving onto a new page when one fills up.
+ * Large, smooth or repeated textures are left as they are, since they either wouldn't fit or wouldn't draw the same
+ */
+public class TextureAtlas {
+
+    /**
+     * The largest width or height of a texture which will be packed
+     */
+    private static final int MAX_PACKED_SIZE = 512;
+
+    /**
+     * The gap left around each packed texture
+     */
+    private static final int PADDING = 1;
+
+    /**
+     * The width and height of each page
+     */
+    private final int pageSize;
+
+    /**
+     * The page textures, the last of which is being packed into
+     */
+    private final List<Texture> pages = new ArrayList<>();
+
+    /**
+     * Where each packed texture is within the pages
+     */
+    private final Map<ConstTexture, Region> regions = new IdentityHashMap<>();
+
+    /**
+     * The position of the next texture on the current shelf, and the height of the current shelf
+     */
+    private int shelfX, shelfY, shelfHeight;
+
+    /**
+     * Creates an empty atlas
+     *
+     * @param pageSize the width and height of each page, capped at the largest texture the graphics card supports
+     */
+    public TextureAtlas(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Packs a texture into the atlas, if it is small enough and not smooth or repeated. Does nothing if it has already
+     * been packed
+     *
+     * @param texture the texture to pack
+     * @return whether the texture is in the atlas
+     */
+    public synchronized boolean add(ConstTexture texture) {
+        if (regions.containsKey(texture)) return true;
+
+        if (texture.isSmooth() || texture.isRepeated()) return false;
+
+        int width = texture.getSize().x, height = texture.getSize().y;
+        if (width > MAX_PACKED_SIZE || height > MAX_PACKED_SIZE || width == 0 || height == 0) return false;
+
+        if (shelfX + width + PADDING > pageSize) { //start a new shelf below the current one
+            shelfX = 0;
+            shelfY += shelfHeight;
+            shelfHeight = 0;
+        }
+
+        if (pages.isEmpty() || shelfY + height + PADDING > pageSize) { //start a new page
+            Texture page = createPage();
+            if (page == null) return false;
+
+            pages.add(page);
+            shelfX = shelfY = shelfHeight = 0;
+        }
+
+        pages.get(pages.size() - 1).update(texture.copyToImage(), shelfX, shelfY);
+        regions.put(texture, new Region(pages.get(pages.size() - 1), shelfX, shelfY));
+
+        shelfX += width + PADDING;
+        shelfHeight = Math.max(shelfHeight, height + PADDING);
+
+        return true;
+    }
+
+    /**
+     * @param texture the texture to find
+     * @return where the texture is within the atlas, or null if it hasn't been packed
+     */
+    public synchronized Region getRegion(ConstTexture texture) {
+        return regions.get(texture);
+    }
+
+    /**
+     * @return the number of pages in the atlas
+     */
+    public synchronized int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * @return a new, empty page texture, or null if it couldn't be created
+     */
+    private Texture createPage() {
+        try {
+            int size = Math.min(pageSize, Texture.getMaximumSize());
+
+            Texture page = new Texture();
+            page.create(size, size);
+
+            return page;
+        } catch (TextureCreationException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Where a packed texture is within the atlas
+     */
+    public static class Region {
+
+        /**
+         * The page the texture was packed into
+         */
+        private final ConstTexture page;
+
+        /**
+         * The position of the texture's top left corner within the page
+         */
+        private final int x, y;
+
+        private Region(ConstTexture page, int x, int y) {
+            this.page = page;
+            this.x = x;
+            this.y = y;
+        }
+
+        /**
+         * @return the page the texture was packed into
+         */
+        public ConstTexture getPage() {
+            return page;
+        }
+
+        /**
+         * @return the x position of the texture within the page
+         */
+        public int getX() {
+            return x;
+        }
+
+        /**
+         * @return the y position of the texture within the page
+         */
+        public int getY() {
+            return y;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package hashpizza.game.engine.util;
 
+import hashpizza.game.engine.GameWindow;
 import org.jsfml.graphics.ConstTexture;
+import org.jsfml.graphics.Image;
 import org.jsfml.graphics.Texture;
+import org.jsfml.system.Vector2i;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.Iterator;
 
 /**
  * Utility class for loading textures from files
@@ -11,25 +19,127 @@ import java.nio.file.Paths;
 public final class Textures {
 
     /**
-     * Texture to use when a texture can't be found
+     * The atlas every loaded texture is packed into, so that sprites using different textures can be drawn together
      */
-    private static final ConstTexture MISSING_TEXTURE = getTexture("./res/missing_texture.png");
+    private static final TextureAtlas ATLAS = new TextureAtlas(2048);
 
     /**
-     * Finds and loads a texture from the specified path
+     * Texture to use when a texture can't be found, loaded the first time one can't be
+     */
+    private static ConstTexture missingTexture;
+
+    /**
+     * Finds and loads a texture from the specified path. In a headless process only the size of the texture is read,
+     * since there is nothing to draw it and loading it into JSFML would need a display
      *
      * @param path the texture to find's path
      * @return the texture at the specified path, or the missing texture if it couldn't be found
      */
     public static ConstTexture getTexture(String path) {
         try {
-            Texture text = new Texture();
-            text.loadFromFile(Paths.get(path));
-
-            return text;
+            return load(path);
         } catch (Exception ex) {
             ex.printStackTrace();
-            return MISSING_TEXTURE;
+            return getMissingTexture();
+        }
+    }
+
+    /**
+     * @return the texture to use when a texture can't be found, or null if it can't be found either
+     */
+    private static synchronized ConstTexture getMissingTexture() {
+        if (missingTexture == null) {
+            try {
+                missingTexture = load("./res/missing_texture.png");
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+        }
+
+        return missingTexture;
+    }
+
+    /**
+     * Loads a texture, packing it into the atlas
+     *
+     * @param path the texture's path
+     * @return the texture
+     * @throws IOException if the texture can't be loaded
+     */
+    private static ConstTexture load(String path) throws IOException {
+        if (GameWindow.isHeadlessProcess()) return new HeadlessTexture(readSize(path));
+
+        Texture texture = new Texture();
+        texture.loadFromFile(Paths.get(path));
+
+        ATLAS.add(texture);
+
+        return texture;
+    }
+
+    /**
+     * Reads the size of an image file without decoding its pixels
+     *
+     * @param path the image's path
+     * @return the width and height of the image
+     * @throws IOException if the file can't be read or isn't an image
+     */
+    private static Vector2i readSize(String path) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(Paths.get(path).toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) throw new IOException("Can't read image " + path);
+
+            ImageReader reader = readers.next();
+
+            try {
+                reader.setInput(in);
+                return new Vector2i(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * @return the atlas every loaded texture is packed into
+     */
+    public static TextureAtlas getAtlas() {
+        return ATLAS;
+    }
+
+    /**
+     * Stands in for a texture in a headless process, knowing only its size (which sprites and hitboxes are worked out
+     * from) and never being drawn
+     */
+    private static class HeadlessTexture implements ConstTexture {
+
+        /**
+         * The size of the image the texture would have been loaded from
+         */
+        private final Vector2i size;
+
+        HeadlessTexture(Vector2i size) {
+            this.size = size;
+        }
+
+        @Override
+        public Vector2i getSize() {
+            return size;
+        }
+
+        @Override
+        public Image copyToImage() {
+            throw new UnsupportedOperationException("Headless textures have no pixels");
+        }
+
+        @Override
+        public boolean isSmooth() {
+            return false;
+        }
+
+        @Override
+        public boolean isRepeated() {
+            return false;
         }
     }
 }
@@ -0,0 +1,231 @@
+package hashpizza.game.engine.util;
+
+/**
+ * A hierarchical timer wheel which runs callbacks after an amount of in-game time. The wheel is advanced with the
+ * screen's delta time, so it follows pausing and slow-motion, and timers don't need to be updated by whoever created
+ * them. Advancing the wheel only costs as much as the number of timers which fire, not the number which exist
+ */
+public class TimerWheel {
+
+    /**
+     * The length of one wheel tick, in seconds. Timers fire on the first tick at or after their delay has elapsed
+     */
+    public static final float RESOLUTION = 1f / 240;
+
+    /**
+     * The number of bits of the tick count handled by each level of the wheel. The first level has a slot for each
+     * of the next 256 ticks, and each level after it has 64 slots each covering a whole rotation of the level below
+     */
+    private static final int[] LEVEL_BITS = {8, 6, 6, 6};
+
+    /**
+     * The bit offset into the tick count of each level
+     */
+    private static final int[] LEVEL_SHIFT = {0, 8, 14, 20};
+
+    /**
+     * The furthest number of ticks into the future a timer can be placed directly
+     */
+    private static final long MAX_RANGE = 1L << 26;
+
+    /**
+     * The timer slots for each level of the wheel. Each slot is the head of a linked list of timers
+     */
+    private final Timer[][] slots = new Timer[LEVEL_BITS.length][];
+
+    /**
+     * The number of wheel ticks which have elapsed
+     */
+    private long currentTick = 0;
+
+    /**
+     * The total time advanced, in seconds
+     */
+    private double time = 0;
+
+    /**
+     * Creates an empty timer wheel
+     */
+    public TimerWheel() {
+        for (int i = 0; i < LEVEL_BITS.length; i++) {
+            slots[i] = new Timer[1 << LEVEL_BITS[i]];
+        }
+    }
+
+    /**
+     * Schedules a callback to run after the specified amount of game time
+     *
+     * @param delay    the delay in seconds
+     * @param callback the callback to run, or null if the timer is only used to check when it is complete
+     * @return the timer, which can be used to cancel it or check whether it has completed
+     */
+    public Timer schedule(float delay, Runnable callback) {
+        long ticks = Math.max(1, (long) Math.ceil(delay / RESOLUTION));
+
+        Timer timer = new Timer(this, currentTick + ticks, callback);
+        insert(timer);
+
+        return timer;
+    }
+
+    /**
+     * Advances the wheel by the specified delta time, running the callbacks of any timers which complete
+     *
+     * @param delta the time in seconds to advance by
+     */
+    public void advance(float delta) {
+        time += delta;
+
+        long targetTick = (long) (time / RESOLUTION);
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            int slot = (int) (currentTick & (slots[0].length - 1));
+
+            if (slot == 0) cascade(1); //the first level has wrapped around, so bring down the next lot of timers
+
+            Timer timer = slots[0][slot];
+            slots[0][slot] = null;
+
+            while (timer != null) {
+                Timer next = timer.next;
+                timer.next = null;
+
+                timer.fire();
+
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * Moves the timers in the current slot of the specified level down into the levels below it
+     *
+     * @param level the level to cascade
+     */
+    private void cascade(int level) {
+        if (level >= slots.length) return;
+
+        int slot = (int) ((currentTick >> LEVEL_SHIFT[level]) & (slots[level].length - 1));
+
+        if (slot == 0) cascade(level + 1); //this level has also wrapped around
+
+        Timer timer = slots[level][slot];
+        slots[level][slot] = null;
+
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.next = null;
+
+            if (!timer.cancelled) insert(timer); //re-inserting puts it in a lower level now that it is closer
+
+            timer = next;
+        }
+    }
+
+    /**
+     * Places a timer into the slot for its expiry time
+     *
+     * @param timer the timer to insert
+     */
+    private void insert(Timer timer) {
+        long remaining = timer.expiryTick - currentTick;
+        long expiry = remaining >= MAX_RANGE ? currentTick + MAX_RANGE - 1 : timer.expiryTick; //re-inserted later
+
+        int level = 0;
+        while (level < LEVEL_BITS.length - 1 && remaining >= 1L << LEVEL_SHIFT[level + 1]) {
+            level++;
+        }
+
+        int slot = (int) ((expiry >> LEVEL_SHIFT[level]) & (slots[level].length - 1));
+
+        timer.next = slots[level][slot];
+        slots[level][slot] = timer;
+    }
+
+    /**
+     * @return the total game time this wheel has been advanced by, in seconds
+     */
+    public float getTime() {
+        return (float) time;
+    }
+
+    /**
+     * A callback scheduled to run after an amount of game time
+     */
+    public static class Timer {
+
+        /**
+         * The wheel this timer belongs to
+         */
+        private final TimerWheel wheel;
+
+        /**
+         * The wheel tick this timer completes on
+         */
+        private final long expiryTick;
+
+        /**
+         * The callback to run when the timer completes
+         */
+        private final Runnable callback;
+
+        /**
+         * Whether the timer has completed or been cancelled
+         */
+        private boolean complete, cancelled;
+
+        /**
+         * The next timer in the same wheel slot
+         */
+        private Timer next;
+
+        private Timer(TimerWheel wheel, long expiryTick, Runnable callback) {
+            this.wheel = wheel;
+            this.expiryTick = expiryTick;
+            this.callback = callback;
+        }
+
+        /**
+         * Completes the timer, running its callback if it hasn't been cancelled
+         */
+        private void fire() {
+            if (cancelled) return;
+
+            complete = true;
+
+            if (callback != null) callback.run();
+        }
+
+        /**
+         * Cancels this timer so its callback won't be run
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * @return whether the timer has completed
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * @return whether the timer was cancelled before it completed
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return the game time remaining until the timer completes, in seconds
+         */
+        public float getRemainingTime() {
+            if (complete || cancelled) return 0;
+
+            return Math.max(0, expiryTick - wheel.currentTick) * RESOLUTION;
+        }
+    }
+}